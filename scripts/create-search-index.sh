@@ -0,0 +1,62 @@
+#!/bin/bash
+
+# Curtain - Full-Text Search Index
+# (Re)creates the ngram FULLTEXT index behind order search (ft_orders_search).
+# Until it exists the backend searches with LIKE.
+#
+# Adding the first FULLTEXT index rebuilds the orders table, and writes to
+# orders (scans included) wait until the build finishes. Run it in a quiet
+# period; time it on a copy of the data first if orders is large.
+#
+# The index is built with stopwords off. InnoDB's default stopword list
+# contains "a" and "i", and the ngram parser drops every bigram containing a
+# stopword, so most names and numbers would not be found. Replicas build
+# their copy with their own global setting: start them with
+# --innodb-ft-enable-stopword=OFF (docker-compose.replica.yml does).
+
+# Configuration
+CONTAINER_NAME="${CONTAINER_NAME:-curtain-mysql-db-1}"
+DB_NAME="${DB_NAME:-curtain_db}"
+DB_USER="${DB_USER:-root}"
+DB_PASSWORD="${DB_PASSWORD:-root_password}"
+INDEX_NAME="ft_orders_search"
+
+# Colors for output
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo -e "${YELLOW}=== Curtain Full-Text Search Index ===${NC}"
+
+# Check if MySQL container is running
+if ! docker ps | grep -q $CONTAINER_NAME; then
+    echo -e "${RED}ERROR: MySQL container is not running!${NC}"
+    exit 1
+fi
+
+mysql_exec() {
+    docker exec -i $CONTAINER_NAME mysql -u $DB_USER -p$DB_PASSWORD -N -B $DB_NAME 2>/dev/null
+}
+
+EXISTING=$(echo "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() \
+AND table_name = 'orders' AND index_name = '$INDEX_NAME';" | mysql_exec)
+
+# Same column order as MatchAgainstFunctionContributor
+SQL="SET SESSION innodb_ft_enable_stopword = OFF;"
+if [ "$EXISTING" != "0" ]; then
+    echo "Dropping the existing $INDEX_NAME (it may have been built with stopwords)..."
+    SQL="$SQL ALTER TABLE orders DROP INDEX $INDEX_NAME;"
+fi
+SQL="$SQL ALTER TABLE orders ADD FULLTEXT INDEX $INDEX_NAME
+    (order_number, ordering_store, customer_name, customer_tel, customer_email) WITH PARSER ngram;"
+
+echo "Building $INDEX_NAME, writes to orders are blocked until it finishes..."
+START=$(date +%s)
+if echo "$SQL" | mysql_exec; then
+    echo -e "${GREEN}✓ $INDEX_NAME built in $(( $(date +%s) - START ))s${NC}"
+    echo "Restart the backend to switch order search to the index."
+else
+    echo -e "${RED}✗ Creating $INDEX_NAME failed${NC}"
+    exit 1
+fi
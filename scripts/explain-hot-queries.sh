@@ -0,0 +1,104 @@
+#!/bin/bash
+
+# Curtain - Query Plan Check
+# Runs EXPLAIN for the hot Order/WorkLog lookups and fails if one of them
+# cannot use its index. Run against a local or staging database after the
+# backend has started once (Hibernate creates the indexes on startup) and
+# scripts/create-search-index.sh has built the full-text index.
+#
+# It also checks that full-text search finds every order the old LIKE search
+# found, for the terms in SEARCH_TERMS. Pick terms that occur in your data.
+#
+# The same checks run in the test suite against a seeded MySQL container
+# (HotQueryPlanTest, skipped without Docker); this script is for real data.
+
+# Configuration
+CONTAINER_NAME="${CONTAINER_NAME:-curtain-mysql-db-1}"
+DB_NAME="${DB_NAME:-curtain_db}"
+DB_USER="${DB_USER:-root}"
+DB_PASSWORD="${DB_PASSWORD:-root_password}"
+SEARCH_TERMS="${SEARCH_TERMS:-kaya ali 0532 gmail}"
+
+# Colors for output
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo -e "${YELLOW}=== Curtain Query Plan Check ===${NC}"
+
+# Check if MySQL container is running
+if ! docker ps | grep -q $CONTAINER_NAME; then
+    echo -e "${RED}ERROR: MySQL container is not running!${NC}"
+    exit 1
+fi
+
+FAILED=0
+
+# check <expected index> <query>
+# Small tables may still be scanned fully, so the check is on possible_keys:
+# the optimizer must at least be able to use the expected index.
+check() {
+    local expected=$1
+    local query=$2
+    local plan
+    plan=$(docker exec $CONTAINER_NAME mysql -u $DB_USER -p$DB_PASSWORD -N -B $DB_NAME \
+        -e "EXPLAIN $query" 2>/dev/null | head -1)
+    local possible_keys
+    possible_keys=$(echo "$plan" | cut -f6)
+    local key
+    key=$(echo "$plan" | cut -f7)
+
+    if [[ ",$possible_keys," == *",$expected,"* ]]; then
+        echo -e "${GREEN}✓${NC} $expected (chosen: $key)"
+    else
+        echo -e "${RED}✗ $expected not usable (possible_keys: $possible_keys)${NC}"
+        echo "  $query"
+        FAILED=1
+    fi
+}
+
+check "idx_orders_date" "SELECT * FROM orders WHERE date BETWEEN '2024-01-01' AND '2024-01-31'"
+check "idx_orders_state_station" "SELECT COUNT(*) FROM orders WHERE order_state = 'IN_PROGRESS' AND current_station_id = 1"
+check "idx_orders_blocked" "SELECT * FROM orders WHERE is_blocked = 1"
+check "PRIMARY" "SELECT * FROM orders WHERE id > 1000 ORDER BY id LIMIT 50"
+check "idx_work_logs_order_timestamp" "SELECT * FROM work_logs WHERE order_id = 1 ORDER BY timestamp"
+check "idx_work_logs_timestamp" "SELECT * FROM work_logs WHERE timestamp >= '2024-01-01' AND timestamp < '2024-02-01'"
+check "ft_orders_search" "SELECT * FROM orders WHERE MATCH(order_number, ordering_store, customer_name, customer_tel, customer_email) AGAINST('+\"kaya\"' IN BOOLEAN MODE) > 0"
+
+# check_superset <term>
+# Counts the orders LIKE finds for the term and, among them, those MATCH
+# misses; any miss means the index drops part of the text (e.g. stopwords).
+check_superset() {
+    local term=$1
+    local like="(order_number LIKE '%$term%' OR ordering_store LIKE '%$term%' OR customer_name LIKE '%$term%' \
+OR customer_tel LIKE '%$term%' OR customer_email LIKE '%$term%')"
+    local match="MATCH(order_number, ordering_store, customer_name, customer_tel, customer_email) \
+AGAINST('+\"$term\"' IN BOOLEAN MODE) > 0"
+    local counts
+    counts=$(docker exec $CONTAINER_NAME mysql -u $DB_USER -p$DB_PASSWORD -N -B $DB_NAME \
+        -e "SELECT COALESCE(SUM($like), 0), COALESCE(SUM($like AND NOT ($match)), 0) FROM orders" 2>/dev/null)
+    local found
+    found=$(echo "$counts" | cut -f1)
+    local missed
+    missed=$(echo "$counts" | cut -f2)
+
+    if [ -n "$found" ] && [ "$missed" == "0" ]; then
+        echo -e "${GREEN}✓${NC} '$term': full-text search finds all $found LIKE matches"
+    else
+        echo -e "${RED}✗ '$term': full-text search misses ${missed:-?} of ${found:-?} LIKE matches${NC}"
+        FAILED=1
+    fi
+}
+
+for term in $SEARCH_TERMS; do
+    check_superset "$term"
+done
+
+if [ $FAILED -ne 0 ]; then
+    echo -e "${RED}✗ Query plan check failed!${NC}"
+    exit 1
+fi
+
+echo -e "${GREEN}✓ All hot queries can use their indexes, full-text search covers LIKE${NC}"
+echo "================================"
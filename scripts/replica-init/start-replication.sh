@@ -0,0 +1,18 @@
+#!/bin/bash
+# Runs once, on the first start of the mysql-replica container (see
+# docker-compose.replica.yml): follows mysql-db from the start of its binlog,
+# and lets the backend's user read the replication status for its lag check.
+set -e
+
+mysql -uroot -p"${MYSQL_ROOT_PASSWORD}" <<SQL
+SET sql_log_bin = 0;
+GRANT REPLICATION CLIENT ON *.* TO '${MYSQL_USER}'@'%';
+SET sql_log_bin = 1;
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST='${SOURCE_HOST}',
+    SOURCE_USER='root',
+    SOURCE_PASSWORD='${MYSQL_ROOT_PASSWORD}',
+    SOURCE_AUTO_POSITION=1,
+    GET_SOURCE_PUBLIC_KEY=1;
+START REPLICA;
+SQL
@@ -0,0 +1,68 @@
+#!/bin/bash
+
+# Curtain - Barcode Scan Load Test
+# Simulates a shift change: many scanners hitting POST /api/orders/process at once.
+# Creates fresh orders through POST /api/orders/bulk, then scans each of them at
+# the first station with the given concurrency and prints the scan throughput.
+#
+# Compare platform and virtual threads by restarting the backend with
+# VIRTUAL_THREADS_ENABLED=false and then true, and running the same test:
+#   ./scan-load-test.sh 5000 400
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+SCANS=${1:-2000}
+CONCURRENCY=${2:-200}
+RUN_ID=$(date +%Y%m%d%H%M%S)
+
+# Colors for output
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+echo -e "${YELLOW}=== Curtain Scan Load Test ===${NC}"
+echo "Target: $BASE_URL, scans: $SCANS, concurrency: $CONCURRENCY"
+
+# First station of the line
+STATION_ID=$(curl -s "$BASE_URL/api/stations" | grep -o '"id":[0-9]*' | head -1 | cut -d: -f2)
+if [ -z "$STATION_ID" ]; then
+    echo -e "${RED}ERROR: No stations configured or backend not reachable!${NC}"
+    exit 1
+fi
+
+# Create the orders in one bulk request
+echo "Creating $SCANS orders..."
+# (the body goes through stdin, large runs exceed the argument length limit)
+if ! seq 1 $SCANS | awk -v run=$RUN_ID 'BEGIN { printf "[" } { printf "%s{\"orderNumber\":\"LOAD-%s-%d\",\"customerName\":\"Load Test\"}", (NR > 1 ? "," : ""), run, $1 } END { printf "]" }' \
+        | curl -s -f -o /dev/null -H "Content-Type: application/json" --data-binary @- "$BASE_URL/api/orders/bulk"; then
+    echo -e "${RED}ERROR: Could not create orders!${NC}"
+    exit 1
+fi
+
+# Fire the scans
+echo "Scanning at station $STATION_ID..."
+# One curl process sends all scans, CONCURRENCY at a time: a process per scan
+# would cost the client more CPU than the backend spends on the scan
+CONFIG=$(mktemp)
+trap 'rm -f "$CONFIG"' EXIT
+seq 1 $SCANS | awk -v url="$BASE_URL/api/orders/process" -v run=$RUN_ID -v station=$STATION_ID '{
+    printf "next\nurl = \"%s\"\nheader = \"Content-Type: application/json\"\n", url
+    printf "data = \"{\\\"barcode\\\":\\\"LOAD-%s-%d\\\",\\\"stationId\\\":%s,\\\"worker\\\":\\\"loadtest\\\"}\"\n", run, $1, station
+    printf "output = \"/dev/null\"\nwrite-out = \"%%{http_code} %%{time_total}\\n\"\n"
+}' | tail -n +2 > "$CONFIG"
+START=$(date +%s.%N)
+RESULTS=$(curl -s --parallel --parallel-immediate --parallel-max $CONCURRENCY -K "$CONFIG")
+END=$(date +%s.%N)
+
+OK=$(echo "$RESULTS" | grep -c "^200 ")
+ELAPSED=$(echo "$END - $START" | bc)
+THROUGHPUT=$(echo "scale=1; $OK / $ELAPSED" | bc)
+P95=$(echo "$RESULTS" | awk '{ print $2 }' | sort -n | awk '{ a[NR] = $1 } END { print a[int(NR * 0.95)] }')
+
+echo -e "${GREEN}✓ Load test complete${NC}"
+echo "  Successful scans: $OK / $SCANS"
+echo "  Elapsed:          ${ELAPSED}s"
+echo "  Throughput:       $THROUGHPUT scans/s"
+echo "  p95 latency:      ${P95}s"
+echo "================================"
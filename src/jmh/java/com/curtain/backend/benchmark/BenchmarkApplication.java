@@ -0,0 +1,46 @@
+package com.curtain.backend.benchmark;
+
+import com.curtain.backend.CurtainBackendApplication;
+import com.curtain.backend.entity.Station;
+import com.curtain.backend.service.StationService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without the web layer against an in-memory H2
+ * database in MySQL mode, with a three-station line.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CurtainBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command line arguments, so they win over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:" + databaseName
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.auto_quote_keyword=true",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        StationService stationService = context.getBean(StationService.class);
+        String[][] line = { { "Cutting", "CUTTING" }, { "Sewing", "SEWING" }, { "Packing", "PACKING" } };
+        for (int i = 0; i < line.length; i++) {
+            Station station = new Station();
+            station.setName(line[i][0]);
+            station.setStateCode(line[i][1]);
+            station.setStep(i + 1);
+            station.setStatus("ACTIVE");
+            stationService.createStation(station);
+        }
+        return context;
+    }
+}
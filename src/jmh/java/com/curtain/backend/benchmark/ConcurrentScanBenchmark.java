@@ -0,0 +1,127 @@
+package com.curtain.backend.benchmark;
+
+import com.curtain.backend.dto.OrderSummary;
+import com.curtain.backend.entity.Order;
+import com.curtain.backend.service.OrderService;
+import com.curtain.backend.service.StationRoutingTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test for concurrent scans of the same barcode. All threads read the
+ * current order and scan it at the station they saw, so they race for every
+ * transition exactly like two scanners reading one label.
+ *
+ * After each iteration every order must have exactly one station work log
+ * per station it has passed; a double advance fails the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class ConcurrentScanBenchmark {
+
+    private static final int POOL_SIZE = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> line;
+
+    private String prefix;
+    private String[] orderNumbers;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("concurrent");
+        orderService = context.getBean(OrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StationRoutingTable routingTable = context.getBean(StationRoutingTable.class);
+        line = new ArrayList<>();
+        for (StationRoutingTable.Stop stop = routingTable.getFirstStation(); stop != null; stop = routingTable
+                .getNextStation(stop.id())) {
+            line.add(stop.id());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createOrders() {
+        prefix = "STRESS-" + (round++) + "-";
+        List<Order> pool = new ArrayList<>(POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            Order order = new Order();
+            order.setOrderNumber(prefix + i);
+            pool.add(order);
+        }
+        orderNumbers = new String[POOL_SIZE];
+        List<Order> created = orderService.createOrders(pool);
+        for (int i = 0; i < created.size(); i++) {
+            orderNumbers[i] = created.get(i).getOrderNumber();
+        }
+        cursor.set(0);
+    }
+
+    @Benchmark
+    public boolean scanSameOrder() {
+        int i = cursor.get();
+        if (i >= POOL_SIZE) {
+            return false; // Pool used up for this iteration
+        }
+        OrderSummary order = orderService.getOrderByNumber(orderNumbers[i]);
+        if (order == null || order.getCurrentStationId() == null) {
+            cursor.compareAndSet(i, i + 1); // Completed, move everybody to the next order
+            return false;
+        }
+        return orderService.processOrderStation(orderNumbers[i], order.getCurrentStationId(), "stress");
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyNoDoubleAdvance() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT o.order_number, o.current_station_id, o.order_state, "
+                        + "(SELECT COUNT(*) FROM work_logs w WHERE w.order_id = o.id AND w.action IS NULL) AS scans "
+                        + "FROM orders o WHERE o.order_number LIKE ?",
+                prefix + "%");
+        for (Map<String, Object> row : rows) {
+            long scans = ((Number) row.get("scans")).longValue();
+            Object stationId = row.get("current_station_id");
+            long expected = "COMPLETED".equals(row.get("order_state"))
+                    ? line.size()
+                    : line.indexOf(((Number) stationId).longValue());
+            if (scans != expected) {
+                throw new IllegalStateException("Order " + row.get("order_number") + " has " + scans
+                        + " station logs but passed " + expected + " stations");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.curtain.backend.benchmark;
+
+import com.curtain.backend.dto.OrderSnapshot;
+import com.curtain.backend.entity.Order;
+import com.curtain.backend.service.OrderLookupCache;
+import com.curtain.backend.service.OrderService;
+import com.curtain.backend.service.OrderStatsView;
+import com.curtain.backend.service.StationRoutingTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order lifecycle hot paths (barcode scan, search, statistics, performance
+ * report) against an in-memory H2 database in MySQL mode, seeded with
+ * {@code orderCount} orders and their work logs.
+ *
+ * Throughput and SampleTime (latency percentiles) are reported for every
+ * method; the benchmark profile adds the GC profiler for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+// The 1M-order database lives in the forked JVM's heap
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderLifecycleBenchmark {
+
+    private static final String[] CUSTOMERS = { "Ahmet Yilmaz", "Ayse Kaya", "Mehmet Demir", "Fatma Celik",
+            "Mustafa Sahin", "Zeynep Arslan", "Ali Ozturk", "Elif Aydin" };
+    private static final String[] STORES = { "Kadikoy", "Besiktas", "Ankara Cankaya", "Izmir Alsancak" };
+    private static final int SCAN_POOL_SIZE = 1_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int orderCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private StationRoutingTable routingTable;
+    private JdbcTemplate jdbcTemplate;
+    private OrderLookupCache orderLookupCache;
+    private OrderStatsView orderStatsView;
+
+    private String[] scanOrders;
+    private Long[] scanStations;
+    private int scanIndex;
+
+    private Map<String, Object> searchCriteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("lifecycle");
+        orderService = context.getBean(OrderService.class);
+        routingTable = context.getBean(StationRoutingTable.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        orderLookupCache = context.getBean(OrderLookupCache.class);
+        orderStatsView = context.getBean(OrderStatsView.class);
+
+        seedOrders();
+
+        scanOrders = new String[SCAN_POOL_SIZE];
+        scanStations = new Long[SCAN_POOL_SIZE];
+        List<Order> pool = new ArrayList<>(SCAN_POOL_SIZE);
+        for (int i = 0; i < SCAN_POOL_SIZE; i++) {
+            pool.add(newOrder("SCAN-" + i, i));
+        }
+        List<Order> created = orderService.createOrders(pool);
+        for (int i = 0; i < created.size(); i++) {
+            scanOrders[i] = created.get(i).getOrderNumber();
+            scanStations[i] = created.get(i).getCurrentStationId();
+        }
+
+        searchCriteria = new HashMap<>();
+        searchCriteria.put("customerName", "kaya");
+        searchCriteria.put("excludeCompleted", true);
+        searchCriteria.put("page", 0);
+        searchCriteria.put("size", 50);
+    }
+
+    /**
+     * Seeds the orders in chunks and moves roughly half of them along the line,
+     * so that there are completed orders and work logs to report on.
+     */
+    private void seedOrders() {
+        for (int start = 0; start < orderCount; start += CHUNK_SIZE) {
+            List<Order> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = start; i < Math.min(start + CHUNK_SIZE, orderCount); i++) {
+                chunk.add(newOrder(String.format("BENCH-%07d", i), i));
+            }
+            List<Order> created = orderService.createOrders(chunk);
+
+            List<Map<String, Object>> scans = new ArrayList<>();
+            for (int i = 0; i < created.size(); i += 2) {
+                Order order = created.get(i);
+                Long stationId = order.getCurrentStationId();
+                // Every fourth order runs through the whole line, the others stop halfway
+                int steps = (i % 4 == 0) ? Integer.MAX_VALUE : 1;
+                for (int step = 0; stationId != null && step < steps; step++) {
+                    Map<String, Object> scan = new HashMap<>();
+                    scan.put("barcode", order.getOrderNumber());
+                    scan.put("stationId", stationId);
+                    scan.put("worker", "bench");
+                    scans.add(scan);
+                    StationRoutingTable.Stop next = routingTable.getNextStation(stationId);
+                    stationId = next != null ? next.id() : null;
+                }
+            }
+            orderService.processOrderStations(scans);
+        }
+    }
+
+    private Order newOrder(String orderNumber, int i) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setOrderingStore(STORES[i % STORES.length]);
+        order.setCustomerName(CUSTOMERS[i % CUSTOMERS.length]);
+        order.setCustomerTel(String.format("0532%07d", i));
+        order.setCustomerEmail("customer" + i + "@example.com");
+        order.setOrderDetail("Curtain 240x260, pleated, lined");
+        order.setAmount(100.0 + (i % 5000));
+        order.setDate(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+        return order;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean processOrderStation() {
+        int i = scanIndex++ % SCAN_POOL_SIZE;
+        Long stationId = scanStations[i];
+        boolean processed = orderService.processOrderStation(scanOrders[i], stationId, "bench");
+
+        StationRoutingTable.Stop next = routingTable.getNextStation(stationId);
+        if (next != null) {
+            scanStations[i] = next.id();
+        } else {
+            // Completed: put the order back at the start of the line for the next round
+            StationRoutingTable.Stop first = routingTable.getFirstStation();
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update("UPDATE orders SET order_state = 'IN_PROGRESS', current_station_id = ?, "
+                    + "current_station = ?, current_station_entered_at = ? WHERE order_number = ?", first.id(),
+                    first.stateCode(), now, scanOrders[i]);
+            resetCaches(scanOrders[i], first, now);
+            scanStations[i] = first.id();
+        }
+        return processed;
+    }
+
+    /**
+     * Brings the snapshot cache and the stats view in line with the reset row,
+     * so that the next scan of the order takes the cached compare-and-set path
+     * instead of a snapshot miss.
+     */
+    private void resetCaches(String orderNumber, StationRoutingTable.Stop first, LocalDateTime now) {
+        OrderSnapshot snapshot = orderLookupCache.get(orderNumber);
+        if (snapshot != null) {
+            Order reset = snapshot.toOrder();
+            reset.setOrderState("IN_PROGRESS");
+            reset.setCurrentStationId(first.id());
+            reset.setCurrentStation(first.stateCode());
+            reset.setCurrentStationEnteredAt(now);
+            orderLookupCache.put(reset);
+        }
+        orderStatsView.recordChange(new OrderStatsView.StateKey("COMPLETED", "COMPLETED", Boolean.FALSE),
+                new OrderStatsView.StateKey("IN_PROGRESS", first.stateCode(), Boolean.FALSE));
+    }
+
+    @Benchmark
+    public Object searchOrders() {
+        return orderService.searchOrders(searchCriteria);
+    }
+
+    @Benchmark
+    public Object getStatistics() {
+        return orderService.getStatistics(null, null);
+    }
+
+    @Benchmark
+    public Object getStatisticsForDateRange() {
+        return orderService.getStatistics("2024-03-01", "2024-05-31");
+    }
+
+    @Benchmark
+    public Object getPerformanceMetrics() {
+        return orderService.getPerformanceMetrics();
+    }
+}
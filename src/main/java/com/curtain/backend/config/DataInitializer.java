@@ -2,6 +2,8 @@ package com.curtain.backend.config;
 
 import com.curtain.backend.entity.User;
 import com.curtain.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -20,7 +24,7 @@ public class DataInitializer implements CommandLineRunner {
             admin.setPassword("admin123");
             admin.setRole("admin");
             userRepository.save(admin);
-            System.out.println("Default admin user created: admin / admin123");
+            log.info("Default admin user created: admin / admin123");
         }
     }
 }
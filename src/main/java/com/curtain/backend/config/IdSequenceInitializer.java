@@ -0,0 +1,57 @@
+package com.curtain.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders, work logs and station rollups used to get AUTO_INCREMENT ids. Their
+ * pooled id tables (orders_seq, work_logs_seq, station_rollups_seq) start at
+ * 1, so before the first insert the next value is moved past the highest
+ * existing id. Runs before the web server accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        alignSequence("orders_seq", "orders");
+        alignSequence("work_logs_seq", "work_logs");
+        alignSequence("station_rollups_seq", "station_rollups");
+    }
+
+    private void alignSequence(String sequenceTable, String table) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out (next_val - allocationSize, next_val], so
+            // next_val has to clear the highest id by a full block
+            long floor = (maxId != null ? maxId : 0L) + ALLOCATION_SIZE + 1;
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequenceTable + " SET next_val = ? WHERE next_val < ?", floor, floor);
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + sequenceTable, Integer.class);
+            if (rows != null && rows == 0) {
+                jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", floor);
+                updated = 1;
+            }
+            if (updated > 0) {
+                log.info("Moved {} past existing {} ids (next_val={})", sequenceTable, table, floor);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not align {} with {}: {}", sequenceTable, table, e.getMessage());
+        }
+    }
+}
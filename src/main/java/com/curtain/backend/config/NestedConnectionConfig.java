@@ -0,0 +1,31 @@
+package com.curtain.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * Puts the primary pool (Spring Boot's, or the replica setup's) behind a
+ * NestedConnectionDataSource.
+ */
+@Configuration
+public class NestedConnectionConfig {
+
+    private static final Set<String> PRIMARY_POOLS = Set.of("dataSource", "primaryDataSource");
+
+    @Bean
+    public static BeanPostProcessor nestedConnectionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool && PRIMARY_POOLS.contains(beanName)) {
+                    return new NestedConnectionDataSource(pool);
+                }
+                return bean;
+            }
+        };
+    }
+}
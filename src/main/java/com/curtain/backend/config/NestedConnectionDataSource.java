@@ -0,0 +1,81 @@
+package com.curtain.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out a thread's second concurrent connection from a small pool of its
+ * own. Hibernate's pooled id generators (orders, work logs, rollups) fetch the
+ * next block of ids on a second connection, in a transaction of their own,
+ * while the inserting thread keeps the connection of its transaction. Other
+ * inserting threads wait for the generator's lock holding theirs, so once they
+ * hold the whole pool the fetch waits for connection-timeout and all of those
+ * inserts fail. The reserve pool always has a connection for the fetch.
+ */
+public class NestedConnectionDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final int RESERVE_POOL_SIZE = 4;
+
+    private final HikariDataSource pool;
+    private final HikariDataSource reserve;
+    // Connections the current thread holds from either pool
+    private final ThreadLocal<AtomicInteger> held = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public NestedConnectionDataSource(HikariDataSource pool) {
+        super(pool);
+        this.pool = pool;
+        this.reserve = new HikariDataSource(); // Starts on first use
+        pool.copyStateTo(reserve);
+        reserve.setPoolName((pool.getPoolName() != null ? pool.getPoolName() : "HikariPool") + "-reserve");
+        reserve.setMaximumPoolSize(RESERVE_POOL_SIZE);
+        reserve.setMinimumIdle(0);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger count = held.get();
+        Connection connection = count.get() == 0 ? pool.getConnection() : reserve.getConnection();
+        count.incrementAndGet();
+        return track(connection, count);
+    }
+
+    // The count is captured, so a connection closed on another thread still decrements it
+    private Connection track(Connection connection, AtomicInteger count) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (closed.compareAndSet(false, true)) {
+                                count.decrementAndGet();
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        reserve.close();
+        pool.close();
+    }
+}
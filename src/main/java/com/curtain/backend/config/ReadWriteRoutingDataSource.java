@@ -0,0 +1,97 @@
+package com.curtain.backend.config;
+
+import com.curtain.backend.service.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends the read-only transactions of the service layer
+ * (@Transactional(readOnly = true) on a com.curtain.backend.service method) to
+ * the replica and everything else to the primary. Read-only transactions that
+ * Spring Data opens around a single repository call stay on the primary, so
+ * lookups done outside a service transaction (barcode scans, reference data
+ * reloads) always see the latest commit.
+ *
+ * Reads still go to the primary while the client has a recent write
+ * (ReadYourWrites), while the measured replica lag is over the bound
+ * (ReplicaLagMonitor), and for RETRY_AFTER after the replica failed to hand
+ * out a connection.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the route is decided when
+ * the first statement runs, after the transaction has been marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final String SERVICE_PACKAGE = "com.curtain.backend.service.";
+    private static final long RETRY_AFTER_MILLIS = 30_000L;
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWrites readYourWrites;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private volatile long replicaRetryAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites,
+            ReplicaLagMonitor replicaLagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWrites = readYourWrites;
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return Route.PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || !name.startsWith(SERVICE_PACKAGE)
+                || readYourWrites.wroteRecently()
+                || !replicaLagMonitor.isFresh()
+                || System.currentTimeMillis() < replicaRetryAt) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaRetryAt = System.currentTimeMillis() + RETRY_AFTER_MILLIS;
+                log.warn("Read replica unavailable, reading from the primary for {}s: {}",
+                        RETRY_AFTER_MILLIS / 1000, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // The connection is fetched once per transaction, so this registers once.
+    // Outside a transaction nothing is recorded: autocommit reads are not writes.
+    private void recordWriteOnCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            AfterCommit.run(readYourWrites::recordWrite);
+        }
+    }
+}
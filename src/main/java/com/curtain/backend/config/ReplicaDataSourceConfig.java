@@ -0,0 +1,79 @@
+package com.curtain.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica support, on when curtain.datasource.replica.url is set. The
+ * spring.datasource settings then describe the primary pool, and the
+ * application DataSource routes between it and a replica pool (see
+ * ReadWriteRoutingDataSource). Without the property Spring Boot's single pool
+ * is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "curtain.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${curtain.datasource.replica.url}") String url,
+            @Value("${curtain.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${curtain.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${curtain.datasource.replica.pool-size:20}") int poolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        // Fall back to the primary quickly, and start even when the replica is down
+        dataSource.setConnectionTimeout(2000);
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${curtain.datasource.replica.max-lag-ms:5000}") long maxLagMillis) {
+        return new ReadYourWrites(Duration.ofMillis(maxLagMillis));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource replicaDataSource,
+            @Value("${curtain.datasource.replica.max-lag-ms:5000}") long maxLagMillis, MeterRegistry registry) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLagMillis, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSource primaryDataSource, HikariDataSource replicaDataSource,
+            ReadYourWrites readYourWrites, ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                readYourWrites, replicaLagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,85 @@
+package com.curtain.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the replica's lag with SHOW REPLICA STATUS. The replica counts as
+ * fresh only while the last probe saw both replication threads running and a
+ * lag under max-lag-ms, and until that lag plus the time since the probe
+ * reaches max-lag-ms. So a stopped replica, a failing probe or a probe that
+ * stopped running all send reads back to the primary.
+ *
+ * The replica user needs the REPLICATION CLIENT privilege.
+ * db.replica.lag reports the last measured lag in seconds (-1 when unknown).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private volatile long freshUntil;
+    private volatile long lagSeconds = -1;
+    private String problem; // Probe thread only, for logging changes
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, MeterRegistry registry) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag of the read replica in seconds, -1 when unknown")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /** Whether reads may go to the replica now. */
+    public boolean isFresh() {
+        return System.currentTimeMillis() < freshUntil;
+    }
+
+    @Scheduled(fixedDelayString = "${curtain.datasource.replica.lag-check-interval-ms:1000}")
+    public void probe() {
+        long probedAt = System.currentTimeMillis();
+        Long lag = null;
+        String found = null;
+        try {
+            List<Map<String, Object>> rows = replica.queryForList("SHOW REPLICA STATUS");
+            if (rows.isEmpty()) {
+                found = "not configured as a replica";
+            } else {
+                Map<String, Object> status = rows.get(0);
+                if (!"Yes".equals(status.get("Replica_IO_Running"))
+                        || !"Yes".equals(status.get("Replica_SQL_Running"))) {
+                    found = "replication stopped: " + status.get("Last_IO_Error") + " " + status.get("Last_SQL_Error");
+                } else if (status.get("Seconds_Behind_Source") instanceof Number seconds) {
+                    lag = seconds.longValue();
+                    if (lag * 1000 >= maxLagMillis) {
+                        found = "lag " + lag + "s exceeds " + maxLagMillis + "ms";
+                    }
+                } else {
+                    found = "lag unknown";
+                }
+            }
+        } catch (DataAccessException e) {
+            found = "probe failed: " + e.getMessage();
+        }
+
+        lagSeconds = lag != null ? lag : -1;
+        freshUntil = found == null ? probedAt + maxLagMillis - lag * 1000 : 0;
+        if (found != null && problem == null) {
+            log.warn("Read replica not fresh, reading from the primary: {}", found);
+        } else if (found == null && problem != null) {
+            log.info("Read replica fresh (lag {}s), serving reads", lag);
+        }
+        problem = found;
+    }
+}
@@ -2,6 +2,8 @@ package com.curtain.backend.controller;
 
 import com.curtain.backend.entity.User;
 import com.curtain.backend.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,7 +13,9 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private UserService userService;
 
@@ -19,7 +23,7 @@ public class AuthController {
     public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
         String username = credentials.get("username");
         String password = credentials.get("password");
-        System.out.println("Login attempt for user: " + username);
+        log.debug("Login attempt for user: {}", username);
         
         User user = userService.login(username, password);
         if (user != null) {
@@ -1,29 +1,173 @@
 package com.curtain.backend.controller;
 
+import com.curtain.backend.dto.OrderSummary;
 import com.curtain.backend.entity.Order;
+import com.curtain.backend.event.OrderEventBroadcaster;
+import com.curtain.backend.service.ChangeVersion;
+import com.curtain.backend.service.OrderExportService;
+import com.curtain.backend.service.OrderImportService;
 import com.curtain.backend.service.OrderService;
+import com.curtain.backend.service.StationRollupService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderEventBroadcaster orderEventBroadcaster;
+
+    @Autowired
+    private StationRollupService stationRollupService;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Order> getAllOrders(
+    public ResponseEntity<List<OrderSummary>> getAllOrders(
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        // Unchanged since the client's copy: 304 without querying or serializing
+        String etag = changeVersion.ordersETag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (limit != null) {
+            // Keyset mode: the id to pass as afterId for the next page comes back in X-Next-Cursor
+            List<OrderSummary> page = orderService.getOrdersAfter(afterId, limit, startDate, endDate);
+            // A full page (after the service's size cap) means there may be more
+            if (page.size() >= OrderService.pageSize(limit)) {
+                response.header("X-Next-Cursor", String.valueOf(page.get(page.size() - 1).getId()));
+            }
+            return response.body(page);
+        }
         if (startDate != null || endDate != null) {
-            return orderService.getOrdersByDateRange(startDate, endDate);
+            return response.body(orderService.getOrdersByDateRange(startDate, endDate));
+        }
+        return response.body(orderService.getAllOrders());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        // Writes the JSON array incrementally while rows are read from the database cursor
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                orderService.streamOrders(startDate, endDate, order -> {
+                    try {
+                        generator.writeObject(order);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToOrderEvents() {
+        return orderEventBroadcaster.subscribe();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String state) {
+        // Parsed before streaming starts: afterwards a bad date could no longer become a 400
+        java.time.LocalDate start;
+        java.time.LocalDate end;
+        try {
+            start = parseOptionalDate(startDate);
+            end = parseOptionalDate(endDate);
+        } catch (java.time.format.DateTimeParseException e) {
+            return invalidExportDates();
+        }
+        return csvExport("orders.csv", out -> orderExportService.exportOrders(start, end, state, out));
+    }
+
+    @GetMapping("/logs/export")
+    public ResponseEntity<StreamingResponseBody> exportWorkLogs(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        java.time.LocalDate start;
+        java.time.LocalDate end;
+        try {
+            start = parseOptionalDate(startDate);
+            end = parseOptionalDate(endDate);
+        } catch (java.time.format.DateTimeParseException e) {
+            return invalidExportDates();
         }
-        return orderService.getAllOrders();
+        return csvExport("work-logs.csv", out -> orderExportService.exportWorkLogs(start, end, out));
+    }
+
+    private static java.time.LocalDate parseOptionalDate(String value) {
+        return (value != null && !value.isEmpty()) ? java.time.LocalDate.parse(value) : null;
+    }
+
+    // Still a StreamingResponseBody: the return type has to be one for the CSV responses
+    private static ResponseEntity<StreamingResponseBody> invalidExportDates() {
+        byte[] message = "{\"message\": \"startDate/endDate must be yyyy-MM-dd\"}".getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(message));
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvExport(String fileName, Consumer<Writer> exporter) {
+        StreamingResponseBody body = out -> {
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new GZIPOutputStream(out, 64 * 1024), StandardCharsets.UTF_8))) {
+                exporter.accept(writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
     }
 
     @GetMapping("/reports/performance")
@@ -31,11 +175,37 @@ public class OrderController {
         return orderService.getPerformanceMetrics();
     }
 
+    /**
+     * Station throughput and dwell times from the hourly rollups, e.g.
+     * /reports/stations?from=2024-01-01&to=2024-01-31&granularity=day&byWorker=true
+     */
+    @GetMapping("/reports/stations")
+    public ResponseEntity<?> getStationReport(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(defaultValue = "false") boolean byWorker) {
+        try {
+            return ResponseEntity.ok(stationRollupService.getReport(java.time.LocalDate.parse(from),
+                    java.time.LocalDate.parse(to), granularity, stationId, byWorker));
+        } catch (java.time.format.DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("{\"message\": \"from/to must be yyyy-MM-dd, granularity hour, day or month\"}");
+        }
+    }
+
     @GetMapping("/stats")
-    public java.util.Map<String, Object> getStatistics(
+    public ResponseEntity<java.util.Map<String, Object>> getStatistics(
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        return orderService.getStatistics(startDate, endDate);
+            @RequestParam(required = false) String endDate,
+            WebRequest request) {
+        String etag = changeVersion.ordersETag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(orderService.getStatistics(startDate, endDate));
     }
 
     @GetMapping("/{orderNumber}/logs")
@@ -43,9 +213,20 @@ public class OrderController {
         return orderService.getOrderLogs(orderNumber);
     }
 
+    // Summary columns only; /{orderNumber}/detail has order_detail and the addresses
     @GetMapping("/barcode/{barcode}")
-    public ResponseEntity<Order> getOrderByBarcode(@PathVariable String barcode) {
-        Order order = orderService.getOrderByNumber(barcode);
+    public ResponseEntity<OrderSummary> getOrderByBarcode(@PathVariable String barcode) {
+        OrderSummary order = orderService.getOrderByNumber(barcode);
+        if (order != null) {
+            return ResponseEntity.ok(order);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{orderNumber}/detail")
+    public ResponseEntity<Order> getOrderDetail(@PathVariable String orderNumber) {
+        Order order = orderService.getOrderDetail(orderNumber);
         if (order != null) {
             return ResponseEntity.ok(order);
         } else {
@@ -58,6 +239,21 @@ public class OrderController {
         return orderService.createOrder(order);
     }
 
+    @PostMapping("/bulk")
+    public List<Order> createOrders(@RequestBody List<Order> orders) {
+        return orderService.createOrders(orders);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public Map<String, Object> importCsv(HttpServletRequest request) throws IOException {
+        return orderImportService.importCsv(request.getInputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public Map<String, Object> importNdjson(HttpServletRequest request) throws IOException {
+        return orderImportService.importNdjson(request.getInputStream());
+    }
+
     @PostMapping("/process")
     public ResponseEntity<?> processStation(@RequestBody Map<String, Object> payload) {
         String barcode = (String) payload.get("barcode");
@@ -72,9 +268,21 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/process/batch")
+    public ResponseEntity<?> processStations(@RequestBody List<Map<String, Object>> scans) {
+        if (scans.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body("{\"message\": \"At most " + MAX_BATCH_SIZE + " scans per batch\"}");
+        }
+        return ResponseEntity.ok(orderService.processOrderStations(scans));
+    }
+
     @PostMapping("/search")
-    public List<Order> searchOrders(@RequestBody Map<String, Object> searchCriteria) {
-        return orderService.searchOrders(searchCriteria);
+    public ResponseEntity<List<OrderSummary>> searchOrders(@RequestBody Map<String, Object> searchCriteria) {
+        Page<OrderSummary> result = orderService.searchOrders(searchCriteria);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
     }
 
     @PutMapping("/{id}")
@@ -1,10 +1,13 @@
 package com.curtain.backend.controller;
 
 import com.curtain.backend.entity.Station;
+import com.curtain.backend.service.ChangeVersion;
 import com.curtain.backend.service.StationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,9 +18,16 @@ public class StationController {
     @Autowired
     private StationService stationService;
 
+    @Autowired
+    private ChangeVersion changeVersion;
+
     @GetMapping
-    public List<Station> getAllStations() {
-        return stationService.getAllStations();
+    public ResponseEntity<List<Station>> getAllStations(WebRequest request) {
+        // 304 straight from the change counter, before the stations are loaded
+        if (request.checkNotModified(changeVersion.stationsETag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(stationService.getAllStations());
     }
 
     @PostMapping
@@ -0,0 +1,20 @@
+package com.curtain.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Creation and completion time of a completed order, used by the performance
+ * report.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCycleTime {
+    private String orderNumber;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
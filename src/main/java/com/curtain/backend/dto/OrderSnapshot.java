@@ -0,0 +1,40 @@
+package com.curtain.backend.dto;
+
+import com.curtain.backend.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a scan or reported issue reads: identity, station and state.
+ * The scan paths select this instead of the entity so the TEXT order_detail
+ * and the address fields never leave the database there; it is also what
+ * OrderLookupCache keeps per order number.
+ */
+public record OrderSnapshot(Long id, String orderNumber, Long currentStationId, String currentStation,
+        String orderState, Boolean isBlocked, LocalDateTime currentStationEnteredAt) {
+
+    public static OrderSnapshot of(Order order) {
+        return new OrderSnapshot(order.getId(), order.getOrderNumber(), order.getCurrentStationId(),
+                order.getCurrentStation(), order.getOrderState(), order.getIsBlocked(),
+                order.getCurrentStationEnteredAt());
+    }
+
+    public static OrderSnapshot of(OrderSummary summary) {
+        return new OrderSnapshot(summary.getId(), summary.getOrderNumber(), summary.getCurrentStationId(),
+                summary.getCurrentStation(), summary.getOrderState(), summary.getIsBlocked(),
+                summary.getCurrentStationEnteredAt());
+    }
+
+    /** A detached Order carrying only the snapshot fields. */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNumber(orderNumber);
+        order.setCurrentStationId(currentStationId);
+        order.setCurrentStation(currentStation);
+        order.setOrderState(orderState);
+        order.setIsBlocked(isBlocked);
+        order.setCurrentStationEnteredAt(currentStationEnteredAt);
+        return order;
+    }
+}
@@ -0,0 +1,19 @@
+package com.curtain.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the GROUP BY order_state, current_station, is_blocked projection
+ * behind /api/orders/stats.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStateCount {
+    private String orderState;
+    private String currentStation;
+    private Boolean isBlocked;
+    private Long count;
+}
@@ -0,0 +1,35 @@
+package com.curtain.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The columns the order lists, search results and barcode lookup show.
+ * Leaves out the TEXT order_detail and the address fields, which only the
+ * detail endpoint returns with the full Order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private String orderNumber;
+    private String orderingStore;
+    private String customerName;
+    private String customerTel;
+    private String customerEmail;
+    private Double amount;
+    private LocalDate date;
+    private String currentStation;
+    private String orderState;
+    private Long currentStationId;
+    private Boolean isBlocked;
+    private String blockReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime currentStationEnteredAt;
+}
@@ -0,0 +1,21 @@
+package com.curtain.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of /api/orders/reports/stations: a station (and optionally a worker)
+ * in one hour, day or month bucket.
+ */
+@Data
+public class StationRollupReport {
+    private Long stationId;
+    private String stationCode;
+    private LocalDateTime bucketStart;
+    private String workerUsername; // Only set when grouped by worker
+    private Long itemsProcessed;
+    private Double meanDwellMinutes;
+    private Double p95DwellMinutes;
+    private Integer maxQueueLength;
+}
@@ -3,13 +3,20 @@ package com.curtain.backend.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_date", columnList = "date"),
+        @Index(name = "idx_orders_state_station", columnList = "order_state, current_station_id"),
+        @Index(name = "idx_orders_blocked", columnList = "is_blocked")
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (a table on MySQL) keep JDBC insert batching on; IDENTITY disables it
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", unique = true, nullable = false)
@@ -54,4 +61,14 @@ public class Order {
 
     @Column(name = "block_reason")
     private String blockReason;
+
+    // Cycle-time columns, maintained by OrderService on every transition
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "current_station_entered_at")
+    private LocalDateTime currentStationEnteredAt;
 }
@@ -0,0 +1,48 @@
+package com.curtain.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly aggregate of the station scans of one worker. Station-level and
+ * day/month figures are sums of these rows, so reports never read work_logs.
+ */
+@Data
+@Entity
+@Table(name = "station_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_station_rollups_bucket",
+        columnNames = { "station_id", "bucket_start", "worker_username" }), indexes = {
+                @Index(name = "idx_station_rollups_bucket", columnList = "bucket_start")
+        })
+public class StationRollup {
+    @Id
+    // Pooled ids, like Order and WorkLog, so a flush's new rows are inserted in JDBC batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "station_rollups_seq")
+    @SequenceGenerator(name = "station_rollups_seq", sequenceName = "station_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "station_id", nullable = false)
+    private Long stationId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // Start of the hour
+
+    @Column(name = "worker_username", nullable = false)
+    private String workerUsername = ""; // Empty when the scan had no worker
+
+    @Column(name = "items_processed", nullable = false)
+    private Long itemsProcessed = 0L;
+
+    // Scans with a known station entry time; the others only count as items
+    @Column(name = "dwell_samples", nullable = false)
+    private Long dwellSamples = 0L;
+
+    @Column(name = "total_dwell_seconds", nullable = false)
+    private Long totalDwellSeconds = 0L;
+
+    @Column(name = "dwell_histogram", nullable = false)
+    private String dwellHistogram = ""; // Comma separated counts, see DwellHistogram
+
+    @Column(name = "max_queue_length", nullable = false)
+    private Integer maxQueueLength = 0;
+}
@@ -6,10 +6,17 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "work_logs")
+@Table(name = "work_logs", indexes = {
+        @Index(name = "idx_work_logs_order_timestamp", columnList = "order_id, timestamp"),
+        @Index(name = "idx_work_logs_timestamp", columnList = "timestamp")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_work_logs_journal", columnNames = { "journal_id", "journal_seq" })
+})
 public class WorkLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (a table on MySQL) keep JDBC insert batching on; IDENTITY disables it
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_logs_seq")
+    @SequenceGenerator(name = "work_logs_seq", sequenceName = "work_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", nullable = false)
@@ -27,8 +34,22 @@ public class WorkLog {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    // When the order arrived at this station; timestamp is when it left
+    @Column(name = "entered_at")
+    private LocalDateTime enteredAt;
+
+    // Journal and sequence number in the write-behind journal; make replaying it idempotent
+    @Column(name = "journal_id", length = 36)
+    private String journalId;
+
+    @Column(name = "journal_seq")
+    private Long journalSeq;
+
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        // Scans set the scan time themselves; the insert may come later (write-behind)
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.curtain.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * The work logs of one completed order, compacted out of work_logs: a summary
+ * for quick look-ups plus the full history as gzipped JSON.
+ */
+@Data
+@Entity
+@Table(name = "work_log_archives", indexes = {
+        @Index(name = "idx_work_log_archives_last_timestamp", columnList = "last_timestamp")
+})
+public class WorkLogArchive {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "log_count", nullable = false)
+    private Integer logCount;
+
+    @Column(name = "first_timestamp", nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(name = "logs", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] logs; // Gzipped JSON array of WorkLog
+}
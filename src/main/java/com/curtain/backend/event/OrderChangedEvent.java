@@ -0,0 +1,37 @@
+package com.curtain.backend.event;
+
+import com.curtain.backend.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delta pushed to live dashboards when an order changes. Carries only the
+ * fields the floor view needs to patch its local copy.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangedEvent {
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String PROCESSED = "PROCESSED";
+    public static final String BLOCKED = "BLOCKED";
+    public static final String DELETED = "DELETED";
+
+    private String type;
+    private Long orderId;
+    private String orderNumber;
+    private Long currentStationId;
+    private String currentStation;
+    private String orderState;
+    private Boolean isBlocked;
+    private LocalDateTime timestamp;
+
+    public static OrderChangedEvent of(String type, Order order) {
+        return new OrderChangedEvent(type, order.getId(), order.getOrderNumber(), order.getCurrentStationId(),
+                order.getCurrentStation(), order.getOrderState(), order.getIsBlocked(), LocalDateTime.now());
+    }
+}
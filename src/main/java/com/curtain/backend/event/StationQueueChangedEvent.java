@@ -0,0 +1,21 @@
+package com.curtain.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pushed to live dashboards when the number of orders waiting at a station
+ * (in progress or blocked there) changes. Published by OrderStatsView once
+ * the change is committed and counted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationQueueChangedEvent {
+    private String station;
+    private Integer queueLength;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,28 @@
+package com.curtain.backend.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers order_match(query) for the Criteria API: the MySQL FULLTEXT
+ * relevance of the orders search columns, in boolean mode. The column list
+ * must match the ft_orders_search index exactly. Only registered on MySQL;
+ * OrderSpecifications falls back to LIKE elsewhere.
+ */
+public class MatchAgainstFunctionContributor implements FunctionContributor {
+
+    public static final String ORDER_MATCH = "order_match";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof MySQLDialect)) {
+            return;
+        }
+        functionContributions.getFunctionRegistry().registerPattern(ORDER_MATCH,
+                "match(?1, ?2, ?3, ?4, ?5) against (?6 in boolean mode)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -1,16 +1,130 @@
 package com.curtain.backend.repository;
 
+import com.curtain.backend.dto.OrderCycleTime;
+import com.curtain.backend.dto.OrderSnapshot;
+import com.curtain.backend.dto.OrderStateCount;
+import com.curtain.backend.dto.OrderSummary;
 import com.curtain.backend.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderSummaryRepository {
+
+    // Constructor expression for the list projections, in OrderSummary field order
+    String SUMMARY = "new com.curtain.backend.dto.OrderSummary(o.id, o.orderNumber, o.orderingStore, "
+            + "o.customerName, o.customerTel, o.customerEmail, o.amount, o.date, o.currentStation, o.orderState, "
+            + "o.currentStationId, o.isBlocked, o.blockReason, o.createdAt, o.completedAt, o.currentStationEnteredAt)";
+
+    // Constructor expression for the scan and issue paths, in OrderSnapshot component order
+    String SNAPSHOT = "new com.curtain.backend.dto.OrderSnapshot(o.id, o.orderNumber, o.currentStationId, "
+            + "o.currentStation, o.orderState, o.isBlocked, o.currentStationEnteredAt)";
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    java.util.List<Order> findByDateBetween(LocalDate startDate, LocalDate endDate);
+    @Query("SELECT " + SUMMARY + " FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<OrderSummary> findSummaryByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT " + SNAPSHOT + " FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<OrderSnapshot> findSnapshotByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT " + SNAPSHOT + " FROM Order o WHERE o.id = :id")
+    Optional<OrderSnapshot> findSnapshotById(@Param("id") Long id);
+
+    @Query("SELECT " + SNAPSHOT + " FROM Order o WHERE o.orderNumber IN :orderNumbers")
+    java.util.List<OrderSnapshot> findSnapshotsByOrderNumberIn(
+            @Param("orderNumbers") java.util.Collection<String> orderNumbers);
+
+    // The state the caller read the order in. The compare-and-set updates below
+    // only match while the row is still in it, so the caller knows exactly which
+    // stats bucket the order left.
+    String EXPECTED_STATE = "(o.orderState = :expectedState OR o.orderState IS NULL AND :expectedState IS NULL) "
+            + "AND (o.isBlocked = :expectedBlocked OR o.isBlocked IS NULL AND :expectedBlocked IS NULL)";
+
+    // Compare-and-set station transitions: they only match while the order is
+    // still at the expected station and in the expected state, and return the
+    // number of rows changed
+    @Modifying
+    @Query("UPDATE Order o SET o.currentStationId = :nextStationId, o.currentStation = :nextStation, "
+            + "o.currentStationEnteredAt = :now WHERE o.id = :id AND o.currentStationId = :expectedStationId AND "
+            + EXPECTED_STATE)
+    int advanceStation(@Param("id") Long id, @Param("expectedStationId") Long expectedStationId,
+            @Param("expectedState") String expectedState, @Param("expectedBlocked") Boolean expectedBlocked,
+            @Param("nextStationId") Long nextStationId, @Param("nextStation") String nextStation,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.orderState = 'COMPLETED', o.currentStationId = NULL, "
+            + "o.currentStation = 'COMPLETED', o.currentStationEnteredAt = NULL, o.completedAt = :now "
+            + "WHERE o.id = :id AND o.currentStationId = :expectedStationId AND " + EXPECTED_STATE)
+    int completeAtStation(@Param("id") Long id, @Param("expectedStationId") Long expectedStationId,
+            @Param("expectedState") String expectedState, @Param("expectedBlocked") Boolean expectedBlocked,
+            @Param("now") LocalDateTime now);
+
+    // Compare-and-set like the transitions: blocks the order only while it is
+    // still at the station and in the state the caller read. Leaves the station
+    // columns alone.
+    @Modifying
+    @Query("UPDATE Order o SET o.isBlocked = true, o.blockReason = :reason, o.orderState = 'BLOCKED' "
+            + "WHERE o.id = :id AND (o.currentStationId = :expectedStationId "
+            + "OR o.currentStationId IS NULL AND :expectedStationId IS NULL) AND " + EXPECTED_STATE)
+    int markBlocked(@Param("id") Long id, @Param("expectedStationId") Long expectedStationId,
+            @Param("expectedState") String expectedState, @Param("expectedBlocked") Boolean expectedBlocked,
+            @Param("reason") String reason);
+
+    // Targeted update for the order details. Unlike save() on a loaded entity
+    // it leaves the station and state columns alone, so it can never undo a
+    // concurrent compare-and-set transition.
+    @Modifying
+    @Query("UPDATE Order o SET o.orderingStore = :#{#details.orderingStore}, "
+            + "o.deliveryAddress = :#{#details.deliveryAddress}, o.customerName = :#{#details.customerName}, "
+            + "o.customerTel = :#{#details.customerTel}, o.customerEmail = :#{#details.customerEmail}, "
+            + "o.customerAddress = :#{#details.customerAddress}, o.orderDetail = :#{#details.orderDetail}, "
+            + "o.date = :#{#details.date}, o.amount = :#{#details.amount} WHERE o.id = :id")
+    int updateDetails(@Param("id") Long id, @Param("details") Order details);
+
+    @Query("SELECT new com.curtain.backend.dto.OrderCycleTime(o.orderNumber, o.createdAt, o.completedAt) "
+            + "FROM Order o WHERE o.orderState = 'COMPLETED' "
+            + "AND o.createdAt IS NOT NULL AND o.completedAt IS NOT NULL ORDER BY o.id")
+    java.util.List<OrderCycleTime> findCompletedCycleTimes();
+
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.orderNumber IN :orderNumbers")
+    java.util.Set<String> findExistingOrderNumbers(@Param("orderNumbers") java.util.Collection<String> orderNumbers);
+
+    // A null bound leaves that side of the date range open
+    @Query("SELECT " + SUMMARY + " FROM Order o WHERE (:startDate IS NULL OR o.date >= :startDate) "
+            + "AND (:endDate IS NULL OR o.date <= :endDate) ORDER BY o.id")
+    java.util.List<OrderSummary> findSummaries(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // Keyset page: rows strictly after the cursor id, so deep pages cost the same as the first
+    @Query("SELECT " + SUMMARY + " FROM Order o WHERE o.id > :afterId "
+            + "AND (:startDate IS NULL OR o.date >= :startDate) "
+            + "AND (:endDate IS NULL OR o.date <= :endDate) ORDER BY o.id")
+    java.util.List<OrderSummary> findPageAfter(@Param("afterId") Long afterId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate, Limit limit);
 
-    java.util.List<Order> findByDateGreaterThanEqual(LocalDate startDate);
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT " + SUMMARY + " FROM Order o WHERE (:startDate IS NULL OR o.date >= :startDate) "
+            + "AND (:endDate IS NULL OR o.date <= :endDate) ORDER BY o.id")
+    Stream<OrderSummary> streamByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
-    java.util.List<Order> findByDateLessThanEqual(LocalDate endDate);
+    @Query("SELECT new com.curtain.backend.dto.OrderStateCount(o.orderState, o.currentStation, o.isBlocked, COUNT(o)) "
+            + "FROM Order o WHERE (:startDate IS NULL OR o.date >= :startDate) "
+            + "AND (:endDate IS NULL OR o.date <= :endDate) "
+            + "GROUP BY o.orderState, o.currentStation, o.isBlocked")
+    java.util.List<OrderStateCount> countByState(@Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
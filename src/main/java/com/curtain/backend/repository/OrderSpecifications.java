@@ -0,0 +1,204 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.entity.Order;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the SQL predicates behind /api/orders/search from the loose criteria
+ * map sent by the frontend. Unparseable values are ignored, like before.
+ *
+ * With full-text search available, the text criteria first go through the
+ * ft_orders_search index (MATCH ... AGAINST), which narrows the rows down
+ * before the exact per-column LIKE checks run.
+ */
+public final class OrderSpecifications {
+
+    // Text criteria that the full-text index covers
+    private static final String[] TEXT_FIELDS = { "orderNumber", "orderingStore", "customerName", "customerTel",
+            "customerEmail" };
+
+    // ngram_token_size; shorter terms cannot be looked up in the index
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> fromCriteria(Map<String, Object> criteria) {
+        return fromCriteria(criteria, false);
+    }
+
+    /**
+     * Besides the column criteria, "q" matches any of the text columns. When
+     * fullText is set and no sort is given by the caller, "q" results come back
+     * ranked by relevance.
+     */
+    public static Specification<Order> fromCriteria(Map<String, Object> criteria, boolean fullText) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (fullText) {
+                String against = booleanModeQuery(criteria);
+                if (against != null) {
+                    Expression<Double> relevance = cb.function(MatchAgainstFunctionContributor.ORDER_MATCH,
+                            Double.class, root.get("orderNumber"), root.get("orderingStore"),
+                            root.get("customerName"), root.get("customerTel"), root.get("customerEmail"),
+                            cb.literal(against));
+                    predicates.add(cb.greaterThan(relevance, 0.0));
+                    if (getSafeString(criteria, "q") != null && getSafeString(criteria, "sortBy") == null
+                            && !Long.class.equals(query.getResultType())) {
+                        query.orderBy(cb.desc(relevance), cb.asc(root.get("id")));
+                    }
+                }
+            }
+
+            String q = getSafeString(criteria, "q");
+            if (q != null) {
+                String pattern = likePattern(q.toLowerCase());
+                List<Predicate> anyField = new ArrayList<>();
+                for (String field : TEXT_FIELDS) {
+                    anyField.add(cb.like(cb.lower(root.get(field)), pattern, '\\'));
+                }
+                predicates.add(cb.or(anyField.toArray(new Predicate[0])));
+            }
+
+            // Orders without a date are never excluded by the date range
+            LocalDate dateFrom = parseDate(getSafeString(criteria, "dateFrom"));
+            if (dateFrom != null) {
+                predicates.add(cb.or(cb.isNull(root.get("date")),
+                        cb.greaterThanOrEqualTo(root.<LocalDate>get("date"), dateFrom)));
+            }
+
+            LocalDate dateTo = parseDate(getSafeString(criteria, "dateTo"));
+            if (dateTo != null) {
+                predicates.add(cb.or(cb.isNull(root.get("date")),
+                        cb.lessThanOrEqualTo(root.<LocalDate>get("date"), dateTo)));
+            }
+
+            Double amountMin = parseDouble(getSafeString(criteria, "amountMin"));
+            if (amountMin != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Double>get("amount"), amountMin));
+            }
+
+            Double amountMax = parseDouble(getSafeString(criteria, "amountMax"));
+            if (amountMax != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Double>get("amount"), amountMax));
+            }
+
+            // String partial matches (Case-insensitive, except phone numbers)
+            addContains(predicates, cb, root.get("orderNumber"), getSafeString(criteria, "orderNumber"), true);
+            addContains(predicates, cb, root.get("orderingStore"), getSafeString(criteria, "orderingStore"), true);
+            addContains(predicates, cb, root.get("customerName"), getSafeString(criteria, "customerName"), true);
+            addContains(predicates, cb, root.get("customerTel"), getSafeString(criteria, "customerTel"), false);
+            addContains(predicates, cb, root.get("customerEmail"), getSafeString(criteria, "customerEmail"), true);
+
+            // State matches the current station (CUTTING, SEWING...), the general order
+            // state (COMPLETED, BLOCKED, CANCELLED) or the isBlocked flag
+            String state = getSafeString(criteria, "state");
+            if (state != null) {
+                String pattern = likePattern(state.toLowerCase());
+                List<Predicate> stateMatches = new ArrayList<>();
+                stateMatches.add(cb.like(cb.lower(root.get("currentStation")), pattern, '\\'));
+                stateMatches.add(cb.like(cb.lower(root.get("orderState")), pattern, '\\'));
+                if ("BLOCKED".equalsIgnoreCase(state)) {
+                    stateMatches.add(cb.isTrue(root.get("isBlocked")));
+                }
+                predicates.add(cb.or(stateMatches.toArray(new Predicate[0])));
+            }
+
+            Object excludeCompleted = criteria.get("excludeCompleted");
+            if (excludeCompleted != null && Boolean.parseBoolean(excludeCompleted.toString())) {
+                predicates.add(cb.or(cb.isNull(root.get("orderState")),
+                        cb.notEqual(cb.upper(root.get("orderState")), "COMPLETED")));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static void addContains(List<Predicate> predicates, CriteriaBuilder cb,
+            Expression<String> column, String value, boolean ignoreCase) {
+        if (value == null) {
+            return;
+        }
+        if (ignoreCase) {
+            predicates.add(cb.like(cb.lower(column), likePattern(value.toLowerCase()), '\\'));
+        } else {
+            predicates.add(cb.like(column, likePattern(value), '\\'));
+        }
+    }
+
+    /**
+     * Every text criterion as required quoted phrases, e.g. +"kaya" +"0532".
+     * Values are split on anything that is not a letter or digit, which also
+     * keeps boolean-mode operators out of the query. Null when no part is long
+     * enough for the index.
+     */
+    private static String booleanModeQuery(Map<String, Object> criteria) {
+        StringBuilder against = new StringBuilder();
+        List<String> values = new ArrayList<>();
+        for (String field : TEXT_FIELDS) {
+            values.add(getSafeString(criteria, field));
+        }
+        values.add(getSafeString(criteria, "q"));
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String term : value.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    if (against.length() > 0) {
+                        against.append(' ');
+                    }
+                    against.append("+\"").append(term).append('"');
+                }
+            }
+        }
+        return against.length() > 0 ? against.toString() : null;
+    }
+
+    private static String likePattern(String value) {
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    public static String getSafeString(Map<String, Object> map, String key) {
+        if (map.containsKey(key) && map.get(key) != null) {
+            String val = map.get(key).toString();
+            if (!val.trim().isEmpty()) {
+                return val;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.dto.OrderSummary;
+import com.curtain.backend.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Specification queries that select {@link OrderSummary} rows instead of
+ * whole Order entities. JpaSpecificationExecutor always selects the entity,
+ * so these are implemented with the Criteria API in OrderSummaryRepositoryImpl.
+ */
+public interface OrderSummaryRepository {
+
+    List<OrderSummary> searchSummaries(Specification<Order> spec, Sort sort);
+
+    Page<OrderSummary> searchSummaries(Specification<Order> spec, Pageable pageable);
+}
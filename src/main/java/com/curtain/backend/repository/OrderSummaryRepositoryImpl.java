@@ -0,0 +1,72 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.dto.OrderSummary;
+import com.curtain.backend.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+class OrderSummaryRepositoryImpl implements OrderSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummary> searchSummaries(Specification<Order> spec, Sort sort) {
+        return createQuery(spec, sort).getResultList();
+    }
+
+    @Override
+    public Page<OrderSummary> searchSummaries(Specification<Order> spec, Pageable pageable) {
+        TypedQuery<OrderSummary> query = createQuery(spec, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    private TypedQuery<OrderSummary> createQuery(Specification<Order> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<Order> root = query.from(Order.class);
+        // Same column order as the OrderSummary constructor
+        query.select(cb.construct(OrderSummary.class, root.get("id"), root.get("orderNumber"),
+                root.get("orderingStore"), root.get("customerName"), root.get("customerTel"),
+                root.get("customerEmail"), root.get("amount"), root.get("date"), root.get("currentStation"),
+                root.get("orderState"), root.get("currentStationId"), root.get("isBlocked"),
+                root.get("blockReason"), root.get("createdAt"), root.get("completedAt"),
+                root.get("currentStationEnteredAt")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // An unsorted request keeps any ordering the specification applied (search relevance)
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Order> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
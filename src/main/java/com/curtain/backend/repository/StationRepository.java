@@ -1,9 +1,12 @@
 package com.curtain.backend.repository;
 
 import com.curtain.backend.entity.Station;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface StationRepository extends JpaRepository<Station, Long> {
+    // Evicted by StationService on every write
+    @Cacheable("stations")
     List<Station> findAllByOrderByStepAsc();
 }
@@ -0,0 +1,15 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.entity.StationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StationRollupRepository extends JpaRepository<StationRollup, Long> {
+    Optional<StationRollup> findByStationIdAndBucketStartAndWorkerUsername(Long stationId, LocalDateTime bucketStart,
+            String workerUsername);
+
+    List<StationRollup> findByBucketStartGreaterThanEqualAndBucketStartLessThan(LocalDateTime from,
+            LocalDateTime to);
+}
@@ -1,9 +1,13 @@
 package com.curtain.backend.repository;
 
 import com.curtain.backend.entity.User;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Evicted by UserService on every write. Misses are not cached, so users
+    // saved directly through the repository (DataInitializer) are still found.
+    @Cacheable(value = "usersByUsername", unless = "#result == null")
     Optional<User> findByUsername(String username);
 }
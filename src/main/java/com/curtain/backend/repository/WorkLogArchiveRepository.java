@@ -0,0 +1,13 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.entity.WorkLogArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WorkLogArchiveRepository extends JpaRepository<WorkLogArchive, Long> {
+    Optional<WorkLogArchive> findByOrderId(Long orderId);
+
+    List<WorkLogArchive> findByOrderIdIn(Collection<Long> orderIds);
+}
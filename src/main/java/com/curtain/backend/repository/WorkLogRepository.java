@@ -1,9 +1,30 @@
 package com.curtain.backend.repository;
 
 import com.curtain.backend.entity.WorkLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface WorkLogRepository extends JpaRepository<WorkLog, Long> {
     List<WorkLog> findByOrderIdOrderByTimestampAsc(Long orderId);
+
+    List<WorkLog> findByOrderIdInOrderByOrderIdAscTimestampAsc(Collection<Long> orderIds);
+
+    @Query("SELECT w.journalSeq FROM WorkLog w WHERE w.journalId = :journalId AND w.journalSeq IN :journalSeqs")
+    Set<Long> findExistingJournalSeqs(@Param("journalId") String journalId,
+            @Param("journalSeqs") Collection<Long> journalSeqs);
+
+    // Answered from the uk_work_logs_journal index (journal_id, journal_seq)
+    @Query("SELECT MAX(w.journalSeq) FROM WorkLog w WHERE w.journalId = :journalId")
+    Long findMaxJournalSeq(@Param("journalId") String journalId);
+
+    // Orders completed before the cutoff that still have live logs
+    @Query("SELECT o.id FROM Order o WHERE o.orderState = 'COMPLETED' AND o.completedAt < :cutoff "
+            + "AND EXISTS (SELECT 1 FROM WorkLog w WHERE w.orderId = o.id) ORDER BY o.id")
+    List<Long> findArchivableOrderIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
 }
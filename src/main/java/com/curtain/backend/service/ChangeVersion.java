@@ -0,0 +1,79 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.config.ReplicaLagMonitor;
+import com.curtain.backend.event.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modification counters for orders and stations, bumped after every committed
+ * change, which the polled GET endpoints turn into ETags. An unchanged counter
+ * means an unchanged response, so a matching If-None-Match is answered with
+ * 304 before any query runs.
+ *
+ * The ETags are weak (W/"..."): Tomcat does not gzip responses with a strong
+ * ETag, since a strong validator would have to differ per content encoding.
+ *
+ * The counters live in this process. The start time is part of every ETag so
+ * a restart never revalidates an old response; writes made directly in the
+ * database, or by another backend instance, are not seen.
+ *
+ * With a read replica configured, a list can be read from a replica that has
+ * not yet applied the latest commit. Caching that response under the new
+ * ETag would serve it as current until the next change, so no orders ETag is
+ * handed out until the replica's max lag has passed since the last change,
+ * nor while ReplicaLagMonitor reports the replica as behind.
+ */
+@Component
+public class ChangeVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong orders = new AtomicLong();
+    private final AtomicLong stations = new AtomicLong();
+    private volatile long ordersChangedAt;
+
+    // Only present with a read replica (curtain.datasource.replica.url)
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Value("${curtain.datasource.replica.max-lag-ms:5000}")
+    private long replicaMaxLagMillis;
+
+    /**
+     * The current orders ETag, or null while a replica may still be behind.
+     */
+    public String ordersETag() {
+        if (replicaLagMonitor != null && (!replicaLagMonitor.isFresh()
+                || System.currentTimeMillis() - ordersChangedAt < replicaMaxLagMillis)) {
+            return null;
+        }
+        return "W/\"o-" + epoch + "-" + orders.get() + "\"";
+    }
+
+    public String stationsETag() {
+        return "W/\"s-" + epoch + "-" + stations.get() + "\"";
+    }
+
+    // Every OrderService write publishes an OrderChangedEvent
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        bumpOrders();
+    }
+
+    public void ordersChanged() {
+        AfterCommit.run(this::bumpOrders);
+    }
+
+    public void stationsChanged() {
+        AfterCommit.run(stations::incrementAndGet);
+    }
+
+    private void bumpOrders() {
+        ordersChangedAt = System.currentTimeMillis();
+        orders.incrementAndGet();
+    }
+}
@@ -0,0 +1,69 @@
+package com.curtain.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills created_at, completed_at and current_station_entered_at for orders
+ * created before those columns existed, from their first and last work log.
+ * Only rows with created_at still NULL are touched, so running it again is
+ * harmless. Works through the table in id ranges to keep each UPDATE short.
+ */
+@Component
+@ConditionalOnProperty(name = "curtain.backfill.cycle-times", havingValue = "true", matchIfMissing = true)
+public class CycleTimeBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(CycleTimeBackfill.class);
+
+    private static final long BATCH_SIZE = 10_000;
+
+    // MySQL multi-table UPDATE. Completion time needs at least two logs (creation
+    // and a station scan), matching the old log-based report.
+    private static final String BACKFILL_SQL = "UPDATE orders o JOIN ("
+            + "SELECT order_id, MIN(timestamp) AS first_ts, MAX(timestamp) AS last_ts, COUNT(*) AS log_count "
+            + "FROM work_logs WHERE order_id BETWEEN ? AND ? GROUP BY order_id) w ON w.order_id = o.id "
+            + "SET o.created_at = w.first_ts, "
+            + "o.completed_at = CASE WHEN o.order_state = 'COMPLETED' AND w.log_count >= 2 THEN w.last_ts END, "
+            + "o.current_station_entered_at = CASE WHEN o.current_station_id IS NOT NULL THEN w.last_ts END "
+            + "WHERE o.id BETWEEN ? AND ? AND o.created_at IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            Long pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders WHERE created_at IS NULL", Long.class);
+            if (pending == null || pending == 0) {
+                return;
+            }
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+            log.info("Backfilling cycle times for {} orders", pending);
+
+            long updated = 0;
+            for (long from = 1; from <= maxId; from += BATCH_SIZE) {
+                long to = from + BATCH_SIZE - 1;
+                updated += jdbcTemplate.update(BACKFILL_SQL, from, to, from, to);
+            }
+            log.info("Cycle time backfill done: {} orders updated", updated);
+            if (updated > 0) {
+                changeVersion.ordersChanged();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cycle time backfill failed: {}", e.getMessage());
+        }
+    }
+}
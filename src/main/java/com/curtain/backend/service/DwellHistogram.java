@@ -0,0 +1,72 @@
+package com.curtain.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket histogram of station dwell times. Buckets are the same for
+ * every rollup row, so histograms of different hours and workers can be added
+ * up and still give a p95. Stored as a comma separated list of counts.
+ */
+final class DwellHistogram {
+
+    // Upper bounds in seconds: 1m, 2m, 5m, 10m, 15m, 30m, 1h, 2h, 4h, 8h, 16h, 1d, 2d, 1w; then overflow
+    private static final long[] BOUNDS = { 60, 120, 300, 600, 900, 1800, 3600, 7200, 14400, 28800, 57600, 86400,
+            172800, 604800 };
+
+    private final long[] counts = new long[BOUNDS.length + 1];
+
+    static DwellHistogram parse(String value) {
+        DwellHistogram histogram = new DwellHistogram();
+        if (value != null && !value.isEmpty()) {
+            String[] parts = value.split(",");
+            for (int i = 0; i < parts.length && i < histogram.counts.length; i++) {
+                histogram.counts[i] = Long.parseLong(parts[i]);
+            }
+        }
+        return histogram;
+    }
+
+    void record(long seconds) {
+        int i = 0;
+        while (i < BOUNDS.length && seconds > BOUNDS[i]) {
+            i++;
+        }
+        counts[i]++;
+    }
+
+    void add(DwellHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /** Upper bound of the bucket holding the given percentile, in seconds; null when empty. */
+    Long percentile(double percentile) {
+        long total = Arrays.stream(counts).sum();
+        if (total == 0) {
+            return null;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= threshold) {
+                // The overflow bucket has no upper bound; report its lower one
+                return i < BOUNDS.length ? BOUNDS[i] : BOUNDS[BOUNDS.length - 1];
+            }
+        }
+        return BOUNDS[BOUNDS.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                value.append(',');
+            }
+            value.append(counts[i]);
+        }
+        return value.toString();
+    }
+}
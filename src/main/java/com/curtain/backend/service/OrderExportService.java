@@ -0,0 +1,119 @@
+package com.curtain.backend.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes orders and work logs as CSV straight from a forward-only JDBC cursor.
+ * Rows are never collected in memory, so the export size does not matter.
+ *
+ * The exports hold their connection for as long as the client downloads, so
+ * they run in read-only service transactions: with a read replica configured
+ * they read from it (see ReadWriteRoutingDataSource) and leave the primary
+ * pool to the scans. The dates are parsed by the caller, before the response
+ * starts streaming.
+ */
+@Service
+public class OrderExportService {
+
+    private static final String ORDER_COLUMNS = "id, order_number, ordering_store, delivery_address, customer_name, "
+            + "customer_tel, customer_email, customer_address, order_detail, amount, date, current_station, "
+            + "order_state, is_blocked, block_reason";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public OrderExportService(DataSource dataSource) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(LocalDate start, LocalDate end, String state, Writer out) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(ORDER_COLUMNS).append(" FROM orders WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (start != null) {
+            sql.append(" AND date >= ?");
+            params.add(start);
+        }
+        if (end != null) {
+            sql.append(" AND date <= ?");
+            params.add(end);
+        }
+        if (state != null && !state.isEmpty()) {
+            sql.append(" AND order_state = ?");
+            params.add(state);
+        }
+        sql.append(" ORDER BY id");
+        export(sql.toString(), params, out);
+    }
+
+    // Live work_logs only; logs compacted into work_log_archives are not exported
+    @Transactional(readOnly = true)
+    public void exportWorkLogs(LocalDate start, LocalDate end, Writer out) {
+        StringBuilder sql = new StringBuilder("SELECT w.id, o.order_number, w.order_id, w.station_id, "
+                + "s.name AS station_name, w.worker_username, w.action, w.timestamp FROM work_logs w "
+                + "LEFT JOIN orders o ON o.id = w.order_id LEFT JOIN stations s ON s.id = w.station_id WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (start != null) {
+            sql.append(" AND w.timestamp >= ?");
+            params.add(start.atStartOfDay());
+        }
+        if (end != null) {
+            sql.append(" AND w.timestamp < ?");
+            params.add(end.plusDays(1).atStartOfDay());
+        }
+        sql.append(" ORDER BY w.id");
+        export(sql.toString(), params, out);
+    }
+
+    private void export(String sql, List<Object> params, Writer out) {
+        try {
+            // UTF-8 byte order mark so Excel picks the right encoding
+            out.write('\uFEFF');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        streamingJdbcTemplate.query(sql, (ResultSet rs) -> {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        out.write(',');
+                    }
+                    out.write(CsvSupport.escape(meta.getColumnLabel(i)));
+                }
+                out.write("\r\n");
+                while (rs.next()) {
+                    writeRow(rs, columns, out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }, params.toArray());
+    }
+
+    private void writeRow(ResultSet rs, int columns, Writer out) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            out.write(CsvSupport.escape(rs.getString(i)));
+        }
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,252 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.entity.Order;
+import com.curtain.backend.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports store order uploads (CSV with a header row, or NDJSON) line by line
+ * from the request body. Valid rows are written in chunks, each chunk in its
+ * own transaction through {@link OrderService#createOrders(List)}, so the
+ * initial station is assigned exactly as for single orders.
+ */
+@Service
+public class OrderImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderImportService.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Map<String, Object> importCsv(InputStream body) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return run.summary();
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : CsvSupport.parseLine(stripBom(headerLine))) {
+            columns.add(normalizeColumn(column));
+        }
+
+        String record;
+        int nextLine = 2;
+        while ((record = CsvSupport.readRecord(reader)) != null) {
+            // Rejections report the line the record starts on
+            int lineNumber = nextLine;
+            nextLine += (int) record.chars().filter(c -> c == '\n').count() + 1;
+            if (record.isBlank()) {
+                continue;
+            }
+            run.received++;
+            try {
+                run.add(lineNumber, fromCsv(columns, CsvSupport.parseLine(record)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                run.reject(lineNumber, null, e.getMessage());
+            }
+        }
+        run.finish();
+        return run.summary();
+    }
+
+    public Map<String, Object> importNdjson(InputStream body) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.received++;
+            try {
+                Order order = objectMapper.readValue(lineNumber == 1 ? stripBom(line) : line, Order.class);
+                // Workflow fields are owned by the server
+                order.setId(null);
+                order.setIsBlocked(Boolean.FALSE);
+                order.setBlockReason(null);
+                run.add(lineNumber, order);
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        run.finish();
+        return run.summary();
+    }
+
+    private Order fromCsv(List<String> columns, List<String> values) {
+        Order order = new Order();
+        for (int i = 0; i < columns.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "ordernumber" -> order.setOrderNumber(value);
+                case "orderingstore" -> order.setOrderingStore(value);
+                case "deliveryaddress" -> order.setDeliveryAddress(value);
+                case "customername" -> order.setCustomerName(value);
+                case "customertel" -> order.setCustomerTel(value);
+                case "customeremail" -> order.setCustomerEmail(value);
+                case "customeraddress" -> order.setCustomerAddress(value);
+                case "orderdetail" -> order.setOrderDetail(value);
+                case "amount" -> order.setAmount(parseAmount(value));
+                case "date" -> order.setDate(LocalDate.parse(value));
+                default -> {
+                    // Unknown columns are ignored
+                }
+            }
+        }
+        return order;
+    }
+
+    private Double parseAmount(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private String normalizeColumn(String column) {
+        return column.trim().replace("_", "").toLowerCase();
+    }
+
+    private String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * State of one upload: the pending chunk, the order numbers seen so far and
+     * the counters reported back to the caller.
+     */
+    private class ImportRun {
+        private final Set<String> seenOrderNumbers = new HashSet<>();
+        private final Map<String, Integer> chunkLines = new LinkedHashMap<>();
+        private final List<Order> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<Map<String, Object>> rejections = new ArrayList<>();
+        private int received;
+        private int imported;
+        private int rejected;
+        private int chunks;
+
+        void add(int lineNumber, Order order) {
+            String orderNumber = order.getOrderNumber() != null ? order.getOrderNumber().trim() : null;
+            if (orderNumber == null || orderNumber.isEmpty()) {
+                reject(lineNumber, null, "Missing orderNumber");
+                return;
+            }
+            if (!seenOrderNumbers.add(orderNumber)) {
+                reject(lineNumber, orderNumber, "Duplicate orderNumber in upload");
+                return;
+            }
+            order.setOrderNumber(orderNumber);
+            chunk.add(order);
+            chunkLines.put(orderNumber, lineNumber);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(int lineNumber, String orderNumber, String reason) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                Map<String, Object> rejection = new LinkedHashMap<>();
+                rejection.put("line", lineNumber);
+                rejection.put("orderNumber", orderNumber);
+                rejection.put("reason", reason);
+                rejections.add(rejection);
+            }
+        }
+
+        void finish() {
+            if (!chunk.isEmpty()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            chunks++;
+            Set<String> existing = orderRepository.findExistingOrderNumbers(chunkLines.keySet());
+            List<Order> toCreate = new ArrayList<>(chunk.size());
+            for (Order order : chunk) {
+                if (existing.contains(order.getOrderNumber())) {
+                    rejectQueued(order, "orderNumber already exists");
+                } else {
+                    toCreate.add(order);
+                }
+            }
+
+            if (!toCreate.isEmpty()) {
+                try {
+                    orderService.createOrders(toCreate);
+                    imported += toCreate.size();
+                } catch (DataAccessException e) {
+                    // e.g. a concurrent upload inserted one of these numbers first
+                    for (Order order : toCreate) {
+                        rejectQueued(order, "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+
+            // Imported entities are not needed any more; keep the persistence context small
+            entityManager.clear();
+            chunk.clear();
+            chunkLines.clear();
+            log.info("Order import progress: {} rows read, {} imported, {} rejected ({} chunks)",
+                    received, imported, rejected, chunks);
+        }
+
+        private void rejectQueued(Order order, String reason) {
+            reject(chunkLines.get(order.getOrderNumber()), order.getOrderNumber(), reason);
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("received", received);
+            summary.put("imported", imported);
+            summary.put("rejected", rejected);
+            summary.put("chunks", chunks);
+            summary.put("rejections", rejections);
+            return summary;
+        }
+    }
+}
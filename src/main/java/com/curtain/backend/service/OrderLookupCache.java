@@ -0,0 +1,47 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.dto.OrderSnapshot;
+import com.curtain.backend.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Slim snapshots of recently scanned orders by order number, so that a scan
+ * can go straight to the compare-and-set UPDATE without reading the order.
+ * A stale snapshot is harmless: the UPDATE then matches no row, and the caller
+ * evicts the entry and retries with a fresh read.
+ *
+ * Backed by the "ordersByNumber" Spring cache (Caffeine, bounded). Changes are
+ * applied after commit, like the stats view, so a rolled back scan never lands
+ * in the cache.
+ */
+@Component
+public class OrderLookupCache {
+
+    public static final String CACHE_NAME = "ordersByNumber";
+
+    private final Cache cache;
+
+    @Autowired
+    public OrderLookupCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public OrderSnapshot get(String orderNumber) {
+        return cache.get(orderNumber, OrderSnapshot.class);
+    }
+
+    public void put(Order order) {
+        put(OrderSnapshot.of(order));
+    }
+
+    public void put(OrderSnapshot snapshot) {
+        AfterCommit.run(() -> cache.put(snapshot.orderNumber(), snapshot));
+    }
+
+    public void evict(String orderNumber) {
+        AfterCommit.run(() -> cache.evict(orderNumber));
+    }
+}
@@ -0,0 +1,65 @@
+package com.curtain.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain meters of the order pipeline, next to the per-method timers from
+ * {@code @Timed} on OrderService:
+ * <ul>
+ * <li>orders.scans - scans per station and outcome (OK or the rejection reason)</li>
+ * <li>orders.scan.latency - latency histogram of single barcode scans</li>
+ * <li>orders.search.results - number of orders returned per search</li>
+ * </ul>
+ */
+@Component
+public class OrderMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer scanLatency;
+    private final DistributionSummary searchResults;
+
+    @Autowired
+    private StationRoutingTable stationRoutingTable;
+
+    public OrderMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.scanLatency = Timer.builder("orders.scan.latency")
+                .description("Time to process one barcode scan")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.searchResults = DistributionSummary.builder("orders.search.results")
+                .description("Orders returned by /api/orders/search")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordScan(Long stationId, String status) {
+        Counter.builder("orders.scans")
+                .description("Barcode scans by station and outcome")
+                .tag("station", stationTag(stationId))
+                .tag("outcome", status)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordScanLatency(long nanos) {
+        scanLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSearchResults(int count) {
+        searchResults.record(count);
+    }
+
+    private String stationTag(Long stationId) {
+        // Tag by state code to keep cardinality bounded by the number of stations
+        StationRoutingTable.Stop station = stationId != null ? stationRoutingTable.getStation(stationId) : null;
+        return station != null && station.stateCode() != null ? station.stateCode() : "unknown";
+    }
+}
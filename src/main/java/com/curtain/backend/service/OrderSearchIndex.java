@@ -0,0 +1,95 @@
+package com.curtain.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+
+/**
+ * MySQL FULLTEXT index with the ngram parser over the searchable order
+ * columns. ngram indexes every 2-character sequence, so a quoted phrase in
+ * boolean mode finds substrings anywhere in a name, phone number or e-mail.
+ *
+ * JPA cannot declare FULLTEXT indexes. The index is created by
+ * scripts/create-search-index.sh, and searches use LIKE until it exists. On
+ * other databases (H2 in the benchmarks) the index is never available.
+ *
+ * The first FULLTEXT index rebuilds the orders table and blocks writes to it,
+ * scans included, until the build is done, so the backend only creates the
+ * index itself when curtain.search.fulltext.create-index is set. Either way
+ * it is built with stopwords off: the ngram parser drops every bigram that
+ * contains a stopword, and InnoDB's default list contains "a" and "i".
+ */
+@Component
+public class OrderSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSearchIndex.class);
+
+    static final String INDEX_NAME = "ft_orders_search";
+
+    // Same column order as MatchAgainstFunctionContributor
+    private static final String CREATE_SQL = "ALTER TABLE orders ADD FULLTEXT INDEX " + INDEX_NAME
+            + " (order_number, ordering_store, customer_name, customer_tel, customer_email) WITH PARSER ngram";
+
+    @Value("${curtain.search.fulltext.create-index:false}")
+    private boolean createIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean available;
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    java.sql.DatabaseMetaData::getDatabaseProductName);
+            if (!"MySQL".equalsIgnoreCase(product)) {
+                log.info("Full-text order search needs MySQL, using LIKE on {}", product);
+                return;
+            }
+            Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics "
+                    + "WHERE table_schema = DATABASE() AND table_name = 'orders' AND index_name = ?",
+                    Integer.class, INDEX_NAME);
+            if (existing == null || existing == 0) {
+                if (!createIndex) {
+                    log.info("Full-text index {} missing, using LIKE; create it with "
+                            + "scripts/create-search-index.sh", INDEX_NAME);
+                    return;
+                }
+                log.warn("Creating full-text index {}, writes to orders wait until it is built", INDEX_NAME);
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+                        try {
+                            statement.execute(CREATE_SQL);
+                        } finally {
+                            statement.execute("SET SESSION innodb_ft_enable_stopword = DEFAULT");
+                        }
+                    }
+                    return null;
+                });
+                log.info("Full-text index {} created", INDEX_NAME);
+            }
+            available = true;
+        } catch (DataAccessException | MetaDataAccessException e) {
+            log.warn("Full-text order search unavailable, using LIKE: {}", e.getMessage());
+        }
+    }
+}
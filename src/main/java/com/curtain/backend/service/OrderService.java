@@ -1,143 +1,402 @@
 package com.curtain.backend.service;
 
+import com.curtain.backend.dto.OrderCycleTime;
+import com.curtain.backend.dto.OrderSnapshot;
+import com.curtain.backend.dto.OrderStateCount;
+import com.curtain.backend.dto.OrderSummary;
 import com.curtain.backend.entity.Order;
-import com.curtain.backend.entity.Station;
 import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.event.OrderChangedEvent;
 import com.curtain.backend.repository.OrderRepository;
-import com.curtain.backend.repository.StationRepository;
+import com.curtain.backend.repository.OrderSpecifications;
 import com.curtain.backend.repository.WorkLogRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("orders.service")
 public class OrderService {
 
+    public static final String SCAN_OK = "OK";
+    public static final String SCAN_INVALID = "INVALID";
+    public static final String SCAN_NOT_FOUND = "NOT_FOUND";
+    public static final String SCAN_WRONG_STATION = "WRONG_STATION";
+    public static final String SCAN_UNKNOWN_STATION = "UNKNOWN_STATION";
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private StationRepository stationRepository;
+    private StationRoutingTable stationRoutingTable;
 
     @Autowired
     private WorkLogRepository workLogRepository;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Autowired
+    private OrderStatsView orderStatsView;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private StationRollupService stationRollupService;
+
+    @Autowired
+    private WorkLogArchiveService workLogArchiveService;
+
+    @Autowired
+    private OrderLookupCache orderLookupCache;
+
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+
+    // Only present in write-behind mode (curtain.worklog.write-behind.enabled)
+    @Autowired(required = false)
+    private WorkLogJournal workLogJournal;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getAllOrders() {
+        return orderRepository.findSummaries(null, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrdersByDateRange(String startDateStr, String endDateStr) {
+        return orderRepository.findSummaries(parseDate(startDateStr), parseDate(endDateStr));
+    }
+
+    /** The page size actually used for a requested limit (1 to MAX_PAGE_SIZE). */
+    public static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
     }
 
-    public List<Order> getOrdersByDateRange(String startDateStr, String endDateStr) {
-        LocalDate start = (startDateStr != null && !startDateStr.isEmpty()) ? LocalDate.parse(startDateStr) : null;
-        LocalDate end = (endDateStr != null && !endDateStr.isEmpty()) ? LocalDate.parse(endDateStr) : null;
+    /**
+     * Keyset pagination ordered by id: pass the last id of the previous page as
+     * afterId (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrdersAfter(Long afterId, int limit, String startDateStr, String endDateStr) {
+        int pageSize = pageSize(limit);
+        return orderRepository.findPageAfter(afterId != null ? afterId : 0L, parseDate(startDateStr),
+                parseDate(endDateStr), Limit.of(pageSize));
+    }
 
-        if (start != null && end != null) {
-            return orderRepository.findByDateBetween(start, end);
-        } else if (start != null) {
-            return orderRepository.findByDateGreaterThanEqual(start);
-        } else if (end != null) {
-            return orderRepository.findByDateLessThanEqual(end);
+    /**
+     * Hands every order in the range to the consumer one at a time. The rows are
+     * OrderSummary projections, not entities, so nothing accumulates in the
+     * persistence context.
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(String startDateStr, String endDateStr, Consumer<OrderSummary> consumer) {
+        try (Stream<OrderSummary> orders = orderRepository.streamByDateRange(parseDate(startDateStr),
+                parseDate(endDateStr))) {
+            orders.forEach(consumer);
         }
-        return orderRepository.findAll();
     }
 
-    public Order getOrderByNumber(String orderNumber) {
+    private LocalDate parseDate(String value) {
+        return (value != null && !value.isEmpty()) ? LocalDate.parse(value) : null;
+    }
+
+    /**
+     * Barcode lookup, as an OrderSummary so the TEXT order_detail is not read on
+     * every scan. Also caches the order's snapshot, so the scan that usually
+     * follows can skip reading the order again.
+     */
+    public OrderSummary getOrderByNumber(String orderNumber) {
+        Optional<OrderSummary> orderOpt = orderRepository.findSummaryByOrderNumber(orderNumber);
+        orderOpt.ifPresent(order -> orderLookupCache.put(OrderSnapshot.of(order)));
+        return orderOpt.orElse(null);
+    }
+
+    /** The full order, order_detail and addresses included. */
+    public Order getOrderDetail(String orderNumber) {
         return orderRepository.findByOrderNumber(orderNumber).orElse(null);
     }
 
+    @Transactional
     public Order createOrder(Order order) {
+        return createOrders(List.of(order)).get(0);
+    }
+
+    /**
+     * Creates several orders in one transaction. Orders and their creation logs
+     * are written with saveAll so Hibernate can batch the inserts.
+     */
+    @Transactional
+    public List<Order> createOrders(List<Order> orders) {
         // Set initial station (lowest step)
-        List<Station> stations = stationRepository.findAllByOrderByStepAsc();
-        if (!stations.isEmpty()) {
-            order.setCurrentStationId(stations.get(0).getId());
-            order.setCurrentStation(stations.get(0).getStateCode()); // Initial status code
-            order.setOrderState("IN_PROGRESS");
-        } else {
-            order.setOrderState("PENDING");
+        StationRoutingTable.Stop firstStation = stationRoutingTable.getFirstStation();
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            order.setCreatedAt(now);
+            order.setCompletedAt(null);
+            order.setCurrentStationEnteredAt(firstStation != null ? now : null);
+            if (firstStation != null) {
+                order.setCurrentStationId(firstStation.id());
+                order.setCurrentStation(firstStation.stateCode()); // Initial status code
+                order.setOrderState("IN_PROGRESS");
+            } else {
+                order.setOrderState("PENDING");
+            }
         }
 
-        Order savedOrder = orderRepository.save(order);
-
-        // Only create log if station exists to avoid null constraint violation in
-        // WorkLog
-        if (savedOrder.getCurrentStationId() != null) {
-            WorkLog log = new WorkLog();
-            log.setOrderId(savedOrder.getId());
-            log.setStationId(savedOrder.getCurrentStationId());
-            log.setWorkerUsername("SYSTEM");
-            log.setAction("ORDER_CREATED");
-            workLogRepository.save(log);
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+
+        List<WorkLog> logs = new java.util.ArrayList<>(savedOrders.size());
+        for (Order savedOrder : savedOrders) {
+            orderStatsView.recordChange(null, OrderStatsView.StateKey.of(savedOrder));
+            eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.CREATED, savedOrder));
+
+            // Only create log if station exists to avoid null constraint violation in
+            // WorkLog
+            if (savedOrder.getCurrentStationId() != null) {
+                WorkLog log = new WorkLog();
+                log.setOrderId(savedOrder.getId());
+                log.setStationId(savedOrder.getCurrentStationId());
+                log.setWorkerUsername("SYSTEM");
+                log.setAction("ORDER_CREATED");
+                logs.add(log);
+            }
         }
+        workLogRepository.saveAll(logs);
 
-        return savedOrder;
+        return savedOrders;
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean processOrderStation(String orderNumber, Long stationId, String workerUsername) {
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(orderNumber);
-        if (orderOpt.isEmpty())
-            return false;
+        long startNanos = System.nanoTime();
+        String status = SCAN_NOT_FOUND;
+
+        List<WorkLog> logs = new java.util.ArrayList<>(1);
+
+        // Common case: the snapshot cached by the barcode lookup, no read needed
+        OrderSnapshot cached = orderLookupCache.get(orderNumber);
+        if (cached != null) {
+            Order order = cached.toOrder();
+            status = applyScan(order, stationId, workerUsername, logs);
+            if (SCAN_OK.equals(status)) {
+                orderLookupCache.put(order);
+            } else {
+                cached = null; // Possibly stale, check against the database
+            }
+        }
+        if (cached == null) {
+            Optional<OrderSnapshot> orderOpt = orderRepository.findSnapshotByOrderNumber(orderNumber);
+            if (orderOpt.isPresent()) {
+                Order order = orderOpt.get().toOrder();
+                status = applyScan(order, stationId, workerUsername, logs);
+                orderLookupCache.put(order);
+            } else {
+                orderLookupCache.evict(orderNumber);
+            }
+        }
+
+        saveScanLogs(logs);
+
+        orderMetrics.recordScan(stationId, status);
+        orderMetrics.recordScanLatency(System.nanoTime() - startNanos);
+        return SCAN_OK.equals(status);
+    }
+
+    /**
+     * Processes a burst of scans, e.g. replayed by a scanner after reconnecting.
+     * All orders are resolved with one IN query, the scans are applied in the
+     * given order (so the same barcode may advance several stations) and the
+     * work logs are inserted together. Each scan gets its own status.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<java.util.Map<String, Object>> processOrderStations(List<java.util.Map<String, Object>> scans) {
+        java.util.Set<String> barcodes = new java.util.HashSet<>();
+        for (java.util.Map<String, Object> scan : scans) {
+            if (scan.get("barcode") instanceof String barcode) {
+                barcodes.add(barcode);
+            }
+        }
+        java.util.Map<String, Order> orders = new java.util.HashMap<>();
+        if (!barcodes.isEmpty()) {
+            for (OrderSnapshot snapshot : orderRepository.findSnapshotsByOrderNumberIn(barcodes)) {
+                orders.put(snapshot.orderNumber(), snapshot.toOrder());
+            }
+        }
 
-        Order order = orderOpt.get();
+        List<WorkLog> logs = new java.util.ArrayList<>();
+        List<java.util.Map<String, Object>> results = new java.util.ArrayList<>(scans.size());
+        for (java.util.Map<String, Object> scan : scans) {
+            Object barcode = scan.get("barcode");
+            Object stationId = scan.get("stationId");
+            String status;
+            if (!(barcode instanceof String) || !(stationId instanceof Number)) {
+                status = SCAN_INVALID;
+            } else {
+                Order order = orders.get(barcode);
+                if (order == null) {
+                    status = SCAN_NOT_FOUND;
+                } else {
+                    status = applyScan(order, ((Number) stationId).longValue(), (String) scan.get("worker"), logs);
+                }
+            }
+
+            orderMetrics.recordScan(stationId instanceof Number number ? number.longValue() : null, status);
+
+            java.util.Map<String, Object> result = new java.util.LinkedHashMap<>();
+            result.put("barcode", barcode);
+            result.put("stationId", stationId);
+            result.put("status", status);
+            results.add(result);
+        }
+
+        saveScanLogs(logs);
+        orders.values().forEach(orderLookupCache::put);
+        return results;
+    }
+
+    /**
+     * Inserts the scans' work logs, or in write-behind mode journals them before
+     * commit for WorkLogJournalDrainer to insert.
+     */
+    private void saveScanLogs(List<WorkLog> logs) {
+        if (workLogJournal != null) {
+            workLogJournal.appendBeforeCommit(logs);
+        } else {
+            workLogRepository.saveAll(logs);
+        }
+        stationRollupService.record(logs);
+    }
 
+    /**
+     * Advances the order past the given station and queues the matching work log.
+     * Returns SCAN_OK, or the reason the scan was rejected.
+     *
+     * The move is a compare-and-set UPDATE ... WHERE current_station_id = ? AND
+     * the state is still the one read, so when two scanners read the same order
+     * at once only one of them advances it and writes a work log; the other gets
+     * SCAN_WRONG_STATION, just like a repeated scan. If only the state changed
+     * (a concurrent reported issue), the scan is retried from the committed row,
+     * so the stats view always moves the order out of the bucket it really left.
+     * The order is a detached copy built from an OrderSnapshot: its fields are
+     * updated in memory only, Hibernate never writes back a stale row over
+     * concurrent changes, and the TEXT order_detail is never read.
+     *
+     * The scan transactions run at READ COMMITTED, so that the re-read sees the
+     * change that made the compare-and-set miss rather than the transaction's
+     * first snapshot.
+     */
+    private String applyScan(Order order, Long stationId, String workerUsername, List<WorkLog> logs) {
         // Verify the order is at the correct station
         if (order.getCurrentStationId() == null || !order.getCurrentStationId().equals(stationId)) {
-            return false; // Order is not at this station
+            return SCAN_WRONG_STATION; // Order is not at this station
+        }
+        StationRoutingTable.Stop currentStation = stationRoutingTable.getStation(stationId);
+        if (currentStation == null) {
+            return SCAN_UNKNOWN_STATION; // Station was removed from the line
+        }
+
+        // Move to next station
+        StationRoutingTable.Stop nextStation = stationRoutingTable.getNextStation(stationId);
+        LocalDateTime now = LocalDateTime.now();
+        while (transition(order, stationId, nextStation, now) == 0) {
+            // Every miss is a committed change to the order, and an order only
+            // changes a bounded number of times, so this ends
+            Optional<OrderSnapshot> current = orderRepository.findSnapshotById(order.getId());
+            if (current.isEmpty() || !stationId.equals(current.get().currentStationId())) {
+                return SCAN_WRONG_STATION; // Another scanner advanced the order first
+            }
+            copyState(current.get(), order);
+        }
+        OrderStatsView.StateKey before = OrderStatsView.StateKey.of(order);
+
+        LocalDateTime enteredAt = order.getCurrentStationEnteredAt();
+        if (nextStation != null) {
+            order.setCurrentStationId(nextStation.id());
+            order.setCurrentStation(nextStation.stateCode());
+            order.setCurrentStationEnteredAt(now);
+        } else {
+            order.setOrderState("COMPLETED"); // End of line
+            order.setCurrentStationId(null);
+            order.setCurrentStationEnteredAt(null);
+            order.setCompletedAt(now);
+            // We keep the last currentStation code or set to "COMPLETED"?
+            // Request implies state_code link. If completed, maybe no station?
+            // Let's keep the last one or set explicit string.
+            order.setCurrentStation("COMPLETED");
         }
 
-        // Log the work
+        // Log the work, with the time the order arrived at this station
         WorkLog log = new WorkLog();
         log.setOrderId(order.getId());
         log.setStationId(stationId);
         log.setWorkerUsername(workerUsername);
-        workLogRepository.save(log);
+        log.setTimestamp(now);
+        log.setEnteredAt(enteredAt);
+        logs.add(log);
 
-        // Move to next station
-        List<Station> stations = stationRepository.findAllByOrderByStepAsc();
-        Station currentStation = stationRepository.findById(stationId).orElse(null);
-
-        if (currentStation != null) {
-            boolean foundCurrent = false;
-            Station nextStation = null;
-
-            for (Station s : stations) {
-                if (foundCurrent) {
-                    nextStation = s;
-                    break;
-                }
-                if (s.getId().equals(stationId)) {
-                    foundCurrent = true;
-                }
-            }
+        orderStatsView.recordChange(before, OrderStatsView.StateKey.of(order));
+        eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.PROCESSED, order));
+        return SCAN_OK;
+    }
 
-            if (nextStation != null) {
-                order.setCurrentStationId(nextStation.getId());
-                order.setCurrentStation(nextStation.getStateCode());
-            } else {
-                order.setOrderState("COMPLETED"); // End of line
-                order.setCurrentStationId(null);
-                // We keep the last currentStation code or set to "COMPLETED"?
-                // Request implies state_code link. If completed, maybe no station?
-                // Let's keep the last one or set explicit string.
-                order.setCurrentStation("COMPLETED");
-            }
-            orderRepository.save(order);
-            return true;
-        }
+    private int transition(Order order, Long stationId, StationRoutingTable.Stop nextStation, LocalDateTime now) {
+        return nextStation != null
+                ? orderRepository.advanceStation(order.getId(), stationId, order.getOrderState(),
+                        order.getIsBlocked(), nextStation.id(), nextStation.stateCode(), now)
+                : orderRepository.completeAtStation(order.getId(), stationId, order.getOrderState(),
+                        order.getIsBlocked(), now);
+    }
 
-        return false;
+    // The columns the scan and issue paths change, from a fresh read
+    private static void copyState(OrderSnapshot from, Order to) {
+        to.setCurrentStationId(from.currentStationId());
+        to.setCurrentStation(from.currentStation());
+        to.setCurrentStationEnteredAt(from.currentStationEnteredAt());
+        to.setOrderState(from.orderState());
+        to.setIsBlocked(from.isBlocked());
     }
 
-    @Transactional
+    /**
+     * Blocks the order with a compare-and-set UPDATE against the state it was
+     * read in, retried from a fresh read when a scan got there first, so the
+     * stats view moves it out of the bucket it really left. The UPDATE leaves
+     * the station columns to the scan path.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean reportIssue(String orderNumber, String reason, String workerUsername) {
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(orderNumber);
-        if (orderOpt.isEmpty())
-            return false;
-
-        Order order = orderOpt.get();
+        Order order;
+        do {
+            // READ COMMITTED, so each read sees the change that made the last attempt miss
+            Optional<OrderSnapshot> orderOpt = orderRepository.findSnapshotByOrderNumber(orderNumber);
+            if (orderOpt.isEmpty())
+                return false;
+            order = orderOpt.get().toOrder(); // Updated in memory only, see applyScan
+        } while (orderRepository.markBlocked(order.getId(), order.getCurrentStationId(), order.getOrderState(),
+                order.getIsBlocked(), reason) == 0);
+
+        OrderStatsView.StateKey before = OrderStatsView.StateKey.of(order);
         order.setIsBlocked(true);
         order.setBlockReason(reason);
         // We might want to change state to BLOCKED as well, or keep IN_PROGRESS but
@@ -157,13 +416,22 @@ public class OrderService {
         // notes there
         // unless I update WorkLog. Let's update WorkLog first.
 
-        orderRepository.save(order);
+        orderLookupCache.put(order);
+        orderStatsView.recordChange(before, OrderStatsView.StateKey.of(order));
+        eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.BLOCKED, order));
         return true;
     }
 
+    /**
+     * Edits the order's details with a targeted UPDATE; the station and state
+     * columns are only changed by scans and reported issues.
+     */
+    @Transactional
     public Order updateOrder(Long id, Order orderDetails) {
         Order order = orderRepository.findById(id).orElse(null);
         if (order != null) {
+            entityManager.detach(order);
+            orderRepository.updateDetails(id, orderDetails);
             order.setOrderingStore(orderDetails.getOrderingStore());
             order.setDeliveryAddress(orderDetails.getDeliveryAddress());
             order.setCustomerName(orderDetails.getCustomerName());
@@ -174,223 +442,176 @@ public class OrderService {
             order.setDate(orderDetails.getDate());
             order.setAmount(orderDetails.getAmount());
             // We usually don't update orderNumber or currentStation via simple update
-            return orderRepository.save(order);
+            eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.UPDATED, order));
+            return order;
         }
         return null;
     }
 
+    @Transactional
     public boolean deleteOrder(Long id) {
-        if (orderRepository.existsById(id)) {
-            orderRepository.deleteById(id);
+        Optional<Order> orderOpt = orderRepository.findById(id);
+        if (orderOpt.isPresent()) {
+            orderRepository.delete(orderOpt.get());
+            orderLookupCache.evict(orderOpt.get().getOrderNumber());
+            orderStatsView.recordChange(OrderStatsView.StateKey.of(orderOpt.get()), null);
+            eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.DELETED, orderOpt.get()));
             return true;
         }
         return false;
     }
 
-    private String getSafeString(java.util.Map<String, Object> map, String key) {
-        if (map.containsKey(key) && map.get(key) != null) {
-            String val = map.get(key).toString();
-            if (!val.trim().isEmpty()) {
-                return val;
-            }
+    private static final java.util.Set<String> SORTABLE_FIELDS = java.util.Set.of("id", "orderNumber",
+            "orderingStore", "customerName", "amount", "date", "currentStation", "orderState");
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Criteria are translated into SQL predicates by {@link OrderSpecifications}.
+     * Optional "page"/"size" switch on server-side pagination; "sortBy"/"sortDir"
+     * control ordering (defaults to id ascending, or relevance for a full-text
+     * "q" search).
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> searchOrders(java.util.Map<String, Object> criteria) {
+        boolean fullText = orderSearchIndex.isAvailable();
+        Specification<Order> spec = OrderSpecifications.fromCriteria(criteria, fullText);
+        // A ranked search orders by relevance inside the specification
+        Sort sort = fullText && OrderSpecifications.getSafeString(criteria, "q") != null
+                && OrderSpecifications.getSafeString(criteria, "sortBy") == null
+                        ? Sort.unsorted()
+                        : getSearchSort(criteria);
+
+        String page = OrderSpecifications.getSafeString(criteria, "page");
+        String size = OrderSpecifications.getSafeString(criteria, "size");
+        Page<OrderSummary> result;
+        if (page == null && size == null) {
+            result = new PageImpl<>(orderRepository.searchSummaries(spec, sort));
+        } else {
+            int pageNumber = parseInt(page, 0);
+            int pageSize = Math.min(parseInt(size, 50), MAX_PAGE_SIZE);
+            result = orderRepository.searchSummaries(spec,
+                    PageRequest.of(Math.max(pageNumber, 0), Math.max(pageSize, 1), sort));
         }
-        return null;
+        orderMetrics.recordSearchResults(result.getNumberOfElements());
+        return result;
     }
 
-    public List<Order> searchOrders(java.util.Map<String, Object> criteria) {
-        List<Order> allOrders = orderRepository.findAll();
-
-        return allOrders.stream().filter(order -> {
-            boolean matches = true;
-
-            // Date filtering
-            String dateFrom = getSafeString(criteria, "dateFrom");
-            if (dateFrom != null) {
-                if (order.getDate() != null && order.getDate().toString().compareTo(dateFrom) < 0)
-                    matches = false;
-            }
-
-            String dateTo = getSafeString(criteria, "dateTo");
-            if (dateTo != null) {
-                if (order.getDate() != null && order.getDate().toString().compareTo(dateTo) > 0)
-                    matches = false;
-            }
-
-            // Amount filtering
-            String amountMinStr = getSafeString(criteria, "amountMin");
-            if (amountMinStr != null) {
-                try {
-                    double min = Double.parseDouble(amountMinStr);
-                    if (order.getAmount() == null || order.getAmount() < min)
-                        matches = false;
-                } catch (NumberFormatException e) {
-                }
-            }
-
-            String amountMaxStr = getSafeString(criteria, "amountMax");
-            if (amountMaxStr != null) {
-                try {
-                    double max = Double.parseDouble(amountMaxStr);
-                    if (order.getAmount() == null || order.getAmount() > max)
-                        matches = false;
-                } catch (NumberFormatException e) {
-                }
-            }
-
-            // String partial matches (Case-insensitive)
-            String orderNumber = getSafeString(criteria, "orderNumber");
-            if (orderNumber != null) {
-                if (order.getOrderNumber() == null
-                        || !order.getOrderNumber().toLowerCase().contains(orderNumber.toLowerCase()))
-                    matches = false;
-            }
-
-            String orderingStore = getSafeString(criteria, "orderingStore");
-            if (orderingStore != null) {
-                if (order.getOrderingStore() == null
-                        || !order.getOrderingStore().toLowerCase().contains(orderingStore.toLowerCase()))
-                    matches = false;
-            }
-
-            String customerName = getSafeString(criteria, "customerName");
-            if (customerName != null) {
-                if (order.getCustomerName() == null
-                        || !order.getCustomerName().toLowerCase().contains(customerName.toLowerCase()))
-                    matches = false;
-            }
-
-            String customerTel = getSafeString(criteria, "customerTel");
-            if (customerTel != null) {
-                if (order.getCustomerTel() == null || !order.getCustomerTel().contains(customerTel))
-                    matches = false;
-            }
-
-            String customerEmail = getSafeString(criteria, "customerEmail");
-            if (customerEmail != null) {
-                if (order.getCustomerEmail() == null
-                        || !order.getCustomerEmail().toLowerCase().contains(customerEmail.toLowerCase()))
-                    matches = false;
-            }
-
-            // State filtering
-            String state = getSafeString(criteria, "state");
-            if (state != null) {
-                boolean stateMatch = false;
-
-                // 1. Check current station (e.g., CUTTING, SEWING)
-                if (order.getCurrentStation() != null &&
-                        order.getCurrentStation().toLowerCase().contains(state.toLowerCase())) {
-                    stateMatch = true;
-                }
-
-                // 2. Check general order state (COMPLETED, BLOCKED, CANCELLED)
-                if (order.getOrderState() != null &&
-                        order.getOrderState().toLowerCase().contains(state.toLowerCase())) {
-                    stateMatch = true;
-                }
-
-                // 3. Explicit check for isBlocked property
-                if ("BLOCKED".equalsIgnoreCase(state) && Boolean.TRUE.equals(order.getIsBlocked())) {
-                    stateMatch = true;
-                }
-
-                if (!stateMatch)
-                    matches = false;
-            }
-
-            // Exclude Completed
-            if (criteria.containsKey("excludeCompleted") && criteria.get("excludeCompleted") != null) {
-                if (Boolean.parseBoolean(criteria.get("excludeCompleted").toString())) {
-                    if ("COMPLETED".equalsIgnoreCase(order.getOrderState())) {
-                        matches = false;
-                    }
-                }
-            }
+    private Sort getSearchSort(java.util.Map<String, Object> criteria) {
+        String sortBy = OrderSpecifications.getSafeString(criteria, "sortBy");
+        if (sortBy == null || !SORTABLE_FIELDS.contains(sortBy)) {
+            sortBy = "id";
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(OrderSpecifications.getSafeString(criteria, "sortDir"))
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        // Keep pages stable when sorting on a non-unique column
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by("id"));
+    }
 
-            return matches;
-        }).collect(java.util.stream.Collectors.toList());
+    private int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     public List<WorkLog> getOrderLogs(String orderNumber) {
         Optional<Order> orderOpt = orderRepository.findByOrderNumber(orderNumber);
         if (orderOpt.isPresent()) {
-            return workLogRepository.findByOrderIdOrderByTimestampAsc(orderOpt.get().getId());
+            return workLogArchiveService.getLogs(orderOpt.get().getId());
         }
         return java.util.Collections.emptyList();
     }
 
+    @Transactional(readOnly = true)
     public java.util.Map<String, Object> getStatistics(String startDate, String endDate) {
-        java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        List<Order> filteredOrders = getOrdersByDateRange(startDate, endDate);
-
-        long totalOrders = filteredOrders.size();
-        long completed = filteredOrders.stream().filter(o -> "COMPLETED".equalsIgnoreCase(o.getOrderState())).count();
-        long inProgress = filteredOrders.stream().filter(o -> "IN_PROGRESS".equalsIgnoreCase(o.getOrderState()))
-                .count();
-        long cancelled = filteredOrders.stream().filter(o -> "CANCELLED".equalsIgnoreCase(o.getOrderState())).count();
-        long blocked = filteredOrders.stream()
-                .filter(o -> Boolean.TRUE.equals(o.getIsBlocked()) || "BLOCKED".equalsIgnoreCase(o.getOrderState()))
-                .count();
+        LocalDate start = parseDate(startDate);
+        LocalDate end = parseDate(endDate);
+        // Undated calls are answered from the in-memory view, dated ones by a single GROUP BY
+        List<OrderStateCount> rows = (start == null && end == null)
+                ? orderStatsView.getCounts()
+                : orderRepository.countByState(start, end);
+
+        long totalOrders = 0;
+        long completed = 0;
+        long inProgress = 0;
+        long cancelled = 0;
+        long blocked = 0;
+        java.util.Map<String, Long> stationCounts = new java.util.HashMap<>();
+
+        for (OrderStateCount row : rows) {
+            long count = row.getCount();
+            totalOrders += count;
+            if ("COMPLETED".equalsIgnoreCase(row.getOrderState())) {
+                completed += count;
+            }
+            if ("IN_PROGRESS".equalsIgnoreCase(row.getOrderState())) {
+                inProgress += count;
+                // Extension: Breakdown by station
+                if (row.getCurrentStation() != null) {
+                    stationCounts.merge(row.getCurrentStation(), count, Long::sum);
+                }
+            }
+            if ("CANCELLED".equalsIgnoreCase(row.getOrderState())) {
+                cancelled += count;
+            }
+            if (Boolean.TRUE.equals(row.getIsBlocked()) || "BLOCKED".equalsIgnoreCase(row.getOrderState())) {
+                blocked += count;
+            }
+        }
 
+        java.util.Map<String, Object> stats = new java.util.HashMap<>();
         stats.put("totalOrders", totalOrders);
         stats.put("completed", completed);
         stats.put("inProgress", inProgress);
         stats.put("cancelled", cancelled);
         stats.put("blocked", blocked);
-
-        // Extension: Breakdown by station
-        java.util.Map<String, Long> stationCounts = filteredOrders.stream()
-                .filter(o -> o.getCurrentStation() != null && "IN_PROGRESS".equalsIgnoreCase(o.getOrderState()))
-                .collect(java.util.stream.Collectors.groupingBy(Order::getCurrentStation,
-                        java.util.stream.Collectors.counting()));
         stats.put("stationCounts", stationCounts);
 
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public java.util.Map<String, Object> getPerformanceMetrics() {
         java.util.Map<String, Object> metrics = new java.util.HashMap<>();
-        List<Order> completedOrders = orderRepository.findAll().stream()
-                .filter(o -> "COMPLETED".equalsIgnoreCase(o.getOrderState()))
-                .collect(java.util.stream.Collectors.toList());
-
-        // 1. Average Completion Time
-        if (!completedOrders.isEmpty()) {
-            double totalHours = 0;
-            int count = 0;
-            for (Order order : completedOrders) {
-                List<WorkLog> logs = workLogRepository.findByOrderIdOrderByTimestampAsc(order.getId());
-                // Find creation time (first log) and completion time (last log)
-                // This is an estimation. Ideally order has createdDate.
-                // We use first log as proxy for start if logs exist.
-                if (logs.size() >= 2) {
-                    java.time.LocalDateTime start = logs.get(0).getTimestamp();
-                    java.time.LocalDateTime end = logs.get(logs.size() - 1).getTimestamp();
-                    long minutes = java.time.Duration.between(start, end).toMinutes();
-                    totalHours += (minutes / 60.0);
-                    count++;
-                }
-            }
-            if (count > 0) {
-                metrics.put("avgCompletionTime", String.format("%.2f", totalHours / count));
-            } else {
-                metrics.put("avgCompletionTime", "0.0");
+
+        // 1. Average Completion Time and 3. Fastest Order, from the cycle-time
+        // columns of completed orders in a single pass
+        double totalHours = 0;
+        int count = 0;
+        String fastestOrderNo = "N/A";
+        long minMinutes = Long.MAX_VALUE;
+
+        for (OrderCycleTime cycle : orderRepository.findCompletedCycleTimes()) {
+            long minutes = java.time.Duration.between(cycle.getStartedAt(), cycle.getFinishedAt()).toMinutes();
+            totalHours += (minutes / 60.0);
+            count++;
+
+            if (minutes < minMinutes) {
+                minMinutes = minutes;
+                fastestOrderNo = cycle.getOrderNumber();
             }
+        }
+
+        if (count > 0) {
+            metrics.put("avgCompletionTime", String.format("%.2f", totalHours / count));
         } else {
             metrics.put("avgCompletionTime", "0.0");
         }
 
-        // 2. Bottleneck Station (Station with most logs/time spent?)
-        // Simplification: Station where orders sit the longest?
-        // Or simply station with most current orders?
-        List<Order> activeOrders = orderRepository.findAll().stream()
-                .filter(o -> "IN_PROGRESS".equalsIgnoreCase(o.getOrderState()))
-                .collect(java.util.stream.Collectors.toList());
-
-        java.util.Map<String, Long> stationLoad = activeOrders.stream()
-                .filter(o -> o.getCurrentStation() != null)
-                .collect(java.util.stream.Collectors.groupingBy(Order::getCurrentStation,
-                        java.util.stream.Collectors.counting()));
+        // 2. Bottleneck Station: the station holding the most IN_PROGRESS orders
+        java.util.Map<String, Long> stationLoad = new java.util.HashMap<>();
+        for (OrderStateCount row : orderStatsView.getCounts()) {
+            if ("IN_PROGRESS".equalsIgnoreCase(row.getOrderState()) && row.getCurrentStation() != null) {
+                stationLoad.merge(row.getCurrentStation(), row.getCount(), Long::sum);
+            }
+        }
 
         if (!stationLoad.isEmpty()) {
             java.util.Map.Entry<String, Long> maxEntry = java.util.Collections.max(stationLoad.entrySet(),
@@ -402,24 +623,6 @@ public class OrderService {
             metrics.put("bottleneckCount", 0);
         }
 
-        // 3. Fastest Order
-        String fastestOrderNo = "N/A";
-        long minMinutes = Long.MAX_VALUE;
-
-        for (Order order : completedOrders) {
-            List<WorkLog> logs = workLogRepository.findByOrderIdOrderByTimestampAsc(order.getId());
-            if (logs.size() >= 2) {
-                java.time.LocalDateTime start = logs.get(0).getTimestamp();
-                java.time.LocalDateTime end = logs.get(logs.size() - 1).getTimestamp();
-                long minutes = java.time.Duration.between(start, end).toMinutes();
-
-                if (minutes < minMinutes) {
-                    minMinutes = minutes;
-                    fastestOrderNo = order.getOrderNumber();
-                }
-            }
-        }
-
         if (minMinutes != Long.MAX_VALUE) {
             metrics.put("fastestOrder", fastestOrderNo + " (" + minMinutes + " min)");
         } else {
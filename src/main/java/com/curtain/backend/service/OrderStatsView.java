@@ -0,0 +1,232 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.dto.OrderStateCount;
+import com.curtain.backend.entity.Order;
+import com.curtain.backend.event.StationQueueChangedEvent;
+import com.curtain.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory materialized view of the undated order counts per
+ * (orderState, currentStation, isBlocked). It is loaded once from the GROUP BY
+ * query and then kept up to date by OrderService after each commit. The view
+ * is rebuilt from the database every few minutes by a scheduled refresh to heal
+ * any drift, e.g. from writes made outside the service. The refresh queries
+ * without holding the lock, so readers on the scan path never wait for it.
+ * Changes applied while its query runs are recorded and replayed onto the new
+ * counts before they replace the old ones. Only a change whose commit falls
+ * between the start of the recording and the query's snapshot is counted
+ * twice, until the next refresh.
+ *
+ * Guarded by a ReentrantLock rather than synchronized: the first getCounts()
+ * runs a query, and a virtual thread blocking inside synchronized would pin
+ * its carrier thread.
+ *
+ * load() runs in its own transaction, so that with a read replica configured
+ * the base counts always come from the primary: commits already applied as
+ * deltas must be in the base, or they would be lost until the next refresh.
+ *
+ * Every applied change that alters a station's queue length publishes a
+ * StationQueueChangedEvent with the new length, for the live dashboards.
+ */
+@Component
+public class OrderStatsView {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsView.class);
+
+    private static final long REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TransactionTemplate loadTransaction;
+    private Map<StateKey, Long> counts;
+    // Non-null while refresh() loads; guarded by lock
+    private List<Change> changesDuringRefresh;
+
+    public OrderStatsView(PlatformTransactionManager transactionManager) {
+        // Unnamed, so ReadWriteRoutingDataSource keeps it on the primary
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    public List<OrderStateCount> getCounts() {
+        lock.lock();
+        try {
+            if (counts == null) {
+                counts = load();
+            }
+            List<OrderStateCount> result = new ArrayList<>(counts.size());
+            counts.forEach((key, count) -> result
+                    .add(new OrderStateCount(key.orderState(), key.currentStation(), key.isBlocked(), count)));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Orders waiting at the station with the given state code: IN_PROGRESS, or
+     * BLOCKED by a reported issue (the order keeps its station). Never queries;
+     * 0 until the view has been loaded.
+     */
+    public int getQueueLength(String stationCode) {
+        lock.lock();
+        try {
+            if (counts == null) {
+                return 0;
+            }
+            long queued = 0;
+            for (Map.Entry<StateKey, Long> entry : counts.entrySet()) {
+                if (entry.getKey().isQueuedAt(stationCode)) {
+                    queued += entry.getValue();
+                }
+            }
+            return (int) queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves one order from one bucket to another once the current transaction
+     * commits. A null "from" means the order was created, a null "to" that it
+     * was deleted.
+     */
+    public void recordChange(StateKey from, StateKey to) {
+        if (from != null && from.equals(to)) {
+            return;
+        }
+        AfterCommit.run(() -> apply(from, to));
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            counts = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(StateKey from, StateKey to) {
+        List<StationQueueChangedEvent> queueChanges = new ArrayList<>(2);
+        lock.lock();
+        try {
+            if (changesDuringRefresh != null) {
+                changesDuringRefresh.add(new Change(from, to));
+            }
+            // Not loaded yet: the next read picks the change up from the database
+            if (counts != null) {
+                apply(counts, from, to);
+                LocalDateTime now = LocalDateTime.now();
+                for (String station : changedQueues(from, to)) {
+                    queueChanges.add(new StationQueueChangedEvent(station, getQueueLength(station), now));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        queueChanges.forEach(eventPublisher::publishEvent);
+    }
+
+    // Stations the order left or joined the queue of; none when it stayed in one (e.g. blocked there)
+    private static List<String> changedQueues(StateKey from, StateKey to) {
+        String left = from != null && from.isQueued() ? from.currentStation() : null;
+        String joined = to != null && to.isQueued() ? to.currentStation() : null;
+        List<String> stations = new ArrayList<>(2);
+        if (left != null && !left.equals(joined)) {
+            stations.add(left);
+        }
+        if (joined != null && !joined.equals(left)) {
+            stations.add(joined);
+        }
+        return stations;
+    }
+
+    private static void apply(Map<StateKey, Long> counts, StateKey from, StateKey to) {
+        if (from != null) {
+            counts.computeIfPresent(from, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        if (to != null) {
+            counts.merge(to, 1L, Long::sum);
+        }
+    }
+
+    @Scheduled(fixedDelay = REFRESH_INTERVAL_MILLIS, initialDelay = 0)
+    public void refresh() {
+        lock.lock();
+        try {
+            changesDuringRefresh = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        Map<StateKey, Long> loaded = null;
+        try {
+            loaded = load();
+        } catch (DataAccessException e) {
+            log.warn("Order stats view refresh failed, keeping the current counts: {}", e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                if (loaded != null) {
+                    for (Change change : changesDuringRefresh) {
+                        apply(loaded, change.from(), change.to());
+                    }
+                    counts = loaded;
+                }
+                changesDuringRefresh = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Map<StateKey, Long> load() {
+        Map<StateKey, Long> loaded = new HashMap<>();
+        for (OrderStateCount row : loadTransaction.execute(status -> orderRepository.countByState(null, null))) {
+            loaded.put(new StateKey(row.getOrderState(), row.getCurrentStation(), row.getIsBlocked()),
+                    row.getCount());
+        }
+        return loaded;
+    }
+
+    private record Change(StateKey from, StateKey to) {
+    }
+
+    public record StateKey(String orderState, String currentStation, Boolean isBlocked) {
+        public static StateKey of(Order order) {
+            return new StateKey(order.getOrderState(), order.getCurrentStation(), order.getIsBlocked());
+        }
+
+        /** Waiting at its station: IN_PROGRESS, or BLOCKED by a reported issue. */
+        boolean isQueued() {
+            return currentStation != null && ("IN_PROGRESS".equals(orderState) || "BLOCKED".equals(orderState));
+        }
+
+        boolean isQueuedAt(String stationCode) {
+            return isQueued() && stationCode.equals(currentStation);
+        }
+    }
+}
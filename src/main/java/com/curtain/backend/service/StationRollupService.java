@@ -0,0 +1,264 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.dto.StationRollupReport;
+import com.curtain.backend.entity.StationRollup;
+import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.repository.StationRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Station throughput and dwell-time analytics. Every committed station scan is
+ * added to an in-memory accumulator keyed by (station, hour, worker), which is
+ * merged into the station_rollups table every FLUSH_INTERVAL. Reports read the
+ * rollup rows only and re-aggregate them to hours, days or months, so they stay
+ * cheap no matter how large work_logs grows.
+ *
+ * Dwell time is the time between the order arriving at the station (the
+ * previous scan) and this scan. Logs written before entered_at existed still
+ * count as processed items but carry no dwell time. Scans not yet flushed are
+ * lost if the process dies; rollups are a reporting aid, not the record.
+ */
+@Service
+public class StationRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationRollupService.class);
+
+    private static final long FLUSH_INTERVAL_MILLIS = 30_000L;
+    private static final double P95 = 0.95;
+
+    @Autowired
+    private StationRollupRepository stationRollupRepository;
+
+    @Autowired
+    private StationRoutingTable stationRoutingTable;
+
+    @Autowired
+    private OrderStatsView orderStatsView;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Map<BucketKey, Delta> pending = new ConcurrentHashMap<>();
+
+    public StationRollupService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds the station scans among the given (already saved) work logs to the
+     * rollups once the current transaction commits. Logs with an action, such as
+     * ORDER_CREATED, are ignored.
+     */
+    public void record(List<WorkLog> logs) {
+        List<WorkLog> scans = new ArrayList<>(logs.size());
+        for (WorkLog workLog : logs) {
+            if (workLog.getAction() == null && workLog.getStationId() != null && workLog.getTimestamp() != null) {
+                scans.add(workLog);
+            }
+        }
+        if (scans.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> accumulate(scans));
+    }
+
+    private void accumulate(List<WorkLog> scans) {
+        for (WorkLog scan : scans) {
+            BucketKey key = new BucketKey(scan.getStationId(), scan.getTimestamp().truncatedTo(ChronoUnit.HOURS),
+                    scan.getWorkerUsername() != null ? scan.getWorkerUsername() : "");
+            Long dwellSeconds = scan.getEnteredAt() != null
+                    ? Math.max(0, Duration.between(scan.getEnteredAt(), scan.getTimestamp()).getSeconds())
+                    : null;
+            StationRoutingTable.Stop station = stationRoutingTable.getStation(scan.getStationId());
+            int queueLength = station != null ? orderStatsView.getQueueLength(station.stateCode()) : 0;
+            // A delta sealed by a concurrent flush belongs to the old map; re-read pending
+            while (!pending.computeIfAbsent(key, k -> new Delta()).add(dwellSeconds, queueLength)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Merges the accumulated scans into station_rollups in one transaction. On
+     * any failure the deltas are put back and retried on the next run.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MILLIS, initialDelay = FLUSH_INTERVAL_MILLIS)
+    public void flush() {
+        Map<BucketKey, Delta> batch = pending;
+        if (batch.isEmpty()) {
+            return;
+        }
+        pending = new ConcurrentHashMap<>();
+        batch.values().forEach(Delta::seal);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<StationRollup> rollups = new ArrayList<>(batch.size());
+                batch.forEach((key, delta) -> {
+                    StationRollup rollup = stationRollupRepository
+                            .findByStationIdAndBucketStartAndWorkerUsername(key.stationId(), key.bucketStart(),
+                                    key.workerUsername())
+                            .orElseGet(() -> newRollup(key));
+                    delta.applyTo(rollup);
+                    rollups.add(rollup);
+                });
+                stationRollupRepository.saveAll(rollups);
+            });
+        } catch (RuntimeException e) {
+            // Not only DataAccessException: no connection for the transaction is a TransactionException
+            log.warn("Station rollup flush failed, retrying later: {}", e.getMessage());
+            batch.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new Delta()).merge(delta));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Per-station (and optionally per-worker) throughput, mean and p95 dwell
+     * time and the longest queue seen, bucketed by hour, day or month. Dates are
+     * inclusive; a null station means all stations.
+     */
+    @Transactional(readOnly = true)
+    public List<StationRollupReport> getReport(LocalDate from, LocalDate to, String granularity, Long stationId,
+            boolean byWorker) {
+        ChronoUnit unit = switch (granularity == null ? "day" : granularity.toLowerCase()) {
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            case "month" -> ChronoUnit.MONTHS;
+            default -> throw new IllegalArgumentException("granularity must be hour, day or month");
+        };
+
+        Map<BucketKey, Aggregate> aggregates = new LinkedHashMap<>();
+        for (StationRollup rollup : stationRollupRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThan(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            if (stationId != null && !stationId.equals(rollup.getStationId())) {
+                continue;
+            }
+            BucketKey key = new BucketKey(rollup.getStationId(), truncate(rollup.getBucketStart(), unit),
+                    byWorker ? rollup.getWorkerUsername() : null);
+            aggregates.computeIfAbsent(key, k -> new Aggregate()).add(rollup);
+        }
+
+        List<StationRollupReport> report = new ArrayList<>(aggregates.size());
+        aggregates.forEach((key, aggregate) -> {
+            StationRoutingTable.Stop station = stationRoutingTable.getStation(key.stationId());
+            StationRollupReport row = new StationRollupReport();
+            row.setStationId(key.stationId());
+            row.setStationCode(station != null ? station.stateCode() : null);
+            row.setBucketStart(key.bucketStart());
+            row.setWorkerUsername(key.workerUsername());
+            row.setItemsProcessed(aggregate.items);
+            if (aggregate.dwellSamples > 0) {
+                row.setMeanDwellMinutes(aggregate.dwellSeconds / 60.0 / aggregate.dwellSamples);
+            }
+            Long p95 = aggregate.histogram.percentile(P95);
+            row.setP95DwellMinutes(p95 != null ? p95 / 60.0 : null);
+            row.setMaxQueueLength(aggregate.maxQueueLength);
+            report.add(row);
+        });
+        report.sort(Comparator.comparing(StationRollupReport::getBucketStart)
+                .thenComparing(StationRollupReport::getStationId)
+                .thenComparing(row -> row.getWorkerUsername() != null ? row.getWorkerUsername() : ""));
+        return report;
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, ChronoUnit unit) {
+        return unit == ChronoUnit.MONTHS
+                ? time.toLocalDate().withDayOfMonth(1).atStartOfDay()
+                : time.truncatedTo(unit);
+    }
+
+    private static StationRollup newRollup(BucketKey key) {
+        StationRollup rollup = new StationRollup();
+        rollup.setStationId(key.stationId());
+        rollup.setBucketStart(key.bucketStart());
+        rollup.setWorkerUsername(key.workerUsername());
+        return rollup;
+    }
+
+    private record BucketKey(Long stationId, LocalDateTime bucketStart, String workerUsername) {
+    }
+
+    /** Scans of one bucket not yet written to the database. */
+    private static final class Delta {
+        private long items;
+        private long dwellSamples;
+        private long dwellSeconds;
+        private final DwellHistogram histogram = new DwellHistogram();
+        private int maxQueueLength;
+        private boolean sealed;
+
+        synchronized boolean add(Long seconds, int queueLength) {
+            if (sealed) {
+                return false;
+            }
+            items++;
+            if (seconds != null) {
+                dwellSamples++;
+                dwellSeconds += seconds;
+                histogram.record(seconds);
+            }
+            maxQueueLength = Math.max(maxQueueLength, queueLength);
+            return true;
+        }
+
+        synchronized void seal() {
+            sealed = true;
+        }
+
+        synchronized void merge(Delta other) {
+            items += other.items;
+            dwellSamples += other.dwellSamples;
+            dwellSeconds += other.dwellSeconds;
+            histogram.add(other.histogram);
+            maxQueueLength = Math.max(maxQueueLength, other.maxQueueLength);
+        }
+
+        synchronized void applyTo(StationRollup rollup) {
+            rollup.setItemsProcessed(rollup.getItemsProcessed() + items);
+            rollup.setDwellSamples(rollup.getDwellSamples() + dwellSamples);
+            rollup.setTotalDwellSeconds(rollup.getTotalDwellSeconds() + dwellSeconds);
+            DwellHistogram merged = DwellHistogram.parse(rollup.getDwellHistogram());
+            merged.add(histogram);
+            rollup.setDwellHistogram(merged.toString());
+            rollup.setMaxQueueLength(Math.max(rollup.getMaxQueueLength(), maxQueueLength));
+        }
+    }
+
+    /** Rollup rows re-aggregated into one report bucket. */
+    private static final class Aggregate {
+        private long items;
+        private long dwellSamples;
+        private long dwellSeconds;
+        private final DwellHistogram histogram = new DwellHistogram();
+        private int maxQueueLength;
+
+        void add(StationRollup rollup) {
+            items += rollup.getItemsProcessed();
+            dwellSamples += rollup.getDwellSamples();
+            dwellSeconds += rollup.getTotalDwellSeconds();
+            histogram.add(DwellHistogram.parse(rollup.getDwellHistogram()));
+            maxQueueLength = Math.max(maxQueueLength, rollup.getMaxQueueLength());
+        }
+    }
+}
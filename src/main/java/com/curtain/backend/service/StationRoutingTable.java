@@ -0,0 +1,85 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.entity.Station;
+import com.curtain.backend.repository.StationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Precomputed production line (first station, station id -> next station) used
+ * by OrderService so that advancing an order does not query the stations table.
+ * The table is immutable and replaced as a whole by {@link #reload()} whenever
+ * StationService changes the line.
+ */
+@Component
+public class StationRoutingTable {
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    private final AtomicReference<Routes> routes = new AtomicReference<>();
+
+    /** First station of the line, or null when no station is configured. */
+    public Stop getFirstStation() {
+        return current().first();
+    }
+
+    /** The station with the given id, or null when it is not part of the line. */
+    public Stop getStation(Long stationId) {
+        return current().stations().get(stationId);
+    }
+
+    /** The station following the given one, or null at the end of the line. */
+    public Stop getNextStation(Long stationId) {
+        return current().next().get(stationId);
+    }
+
+    /**
+     * Rebuilds the table from the database, after the current transaction
+     * commits when there is one.
+     */
+    public void reload() {
+        AfterCommit.run(() -> routes.set(build()));
+    }
+
+    private Routes current() {
+        Routes current = routes.get();
+        if (current == null) {
+            routes.compareAndSet(null, build());
+            current = routes.get();
+        }
+        return current;
+    }
+
+    private Routes build() {
+        // Not the cached findAllByOrderByStepAsc: StationService evicts that cache only
+        // after its write method returns, i.e. after this reload
+        List<Station> line = stationRepository.findAll(Sort.by("step"));
+        Map<Long, Stop> stations = new HashMap<>();
+        Map<Long, Stop> next = new HashMap<>();
+        Stop previous = null;
+        for (Station station : line) {
+            Stop stop = new Stop(station.getId(), station.getStateCode());
+            stations.put(stop.id(), stop);
+            if (previous != null) {
+                next.put(previous.id(), stop);
+            }
+            previous = stop;
+        }
+        Stop first = line.isEmpty() ? null : stations.get(line.get(0).getId());
+        return new Routes(first, Collections.unmodifiableMap(stations), Collections.unmodifiableMap(next));
+    }
+
+    public record Stop(Long id, String stateCode) {
+    }
+
+    private record Routes(Stop first, Map<Long, Stop> stations, Map<Long, Stop> next) {
+    }
+}
@@ -3,6 +3,7 @@ package com.curtain.backend.service;
 import com.curtain.backend.entity.Station;
 import com.curtain.backend.repository.StationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,24 +13,41 @@ public class StationService {
     @Autowired
     private StationRepository stationRepository;
 
+    @Autowired
+    private StationRoutingTable stationRoutingTable;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
     public List<Station> getAllStations() {
         return stationRepository.findAllByOrderByStepAsc();
     }
 
+    @CacheEvict(value = "stations", allEntries = true)
     public Station createStation(Station station) {
-        return stationRepository.save(station);
+        Station saved = stationRepository.save(station);
+        stationRoutingTable.reload();
+        changeVersion.stationsChanged();
+        return saved;
     }
     
+    @CacheEvict(value = "stations", allEntries = true)
      public Station updateStation(Long id, Station stationDetails) {
         Station station = stationRepository.findById(id).orElseThrow();
         station.setName(stationDetails.getName());
         station.setStateCode(stationDetails.getStateCode());
         station.setStep(stationDetails.getStep());
         station.setStatus(stationDetails.getStatus());
-        return stationRepository.save(station);
+        Station saved = stationRepository.save(station);
+        stationRoutingTable.reload();
+        changeVersion.stationsChanged();
+        return saved;
     }
 
+    @CacheEvict(value = "stations", allEntries = true)
     public void deleteStation(Long id) {
         stationRepository.deleteById(id);
+        stationRoutingTable.reload();
+        changeVersion.stationsChanged();
     }
 }
@@ -2,7 +2,10 @@ package com.curtain.backend.service;
 
 import com.curtain.backend.entity.User;
 import com.curtain.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,6 +13,8 @@ import java.util.Optional;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -17,10 +22,12 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    @CacheEvict(value = "usersByUsername", allEntries = true)
     public User createUser(User user) {
         return userRepository.save(user);
     }
     
+    @CacheEvict(value = "usersByUsername", allEntries = true)
     public User updateUser(Long id, User userDetails) {
         User user = userRepository.findById(id).orElseThrow();
         user.setUsername(userDetails.getUsername());
@@ -29,6 +36,7 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @CacheEvict(value = "usersByUsername", allEntries = true)
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
     }
@@ -36,8 +44,7 @@ public class UserService {
     public User login(String username, String password) {
         Optional<User> user = userRepository.findByUsername(username);
         if (user.isPresent()) {
-            System.out.println("User found: " + user.get().getUsername() + ", Role: " + user.get().getRole());
-            System.out.println("Comparing passwords: input[" + password + "] with DB[" + user.get().getPassword() + "]");
+            log.debug("User found: {}, Role: {}", user.get().getUsername(), user.get().getRole());
             if (user.get().getPassword().equals(password)) {
                 return user.get();
             }
@@ -0,0 +1,159 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.entity.WorkLogArchive;
+import com.curtain.backend.repository.WorkLogArchiveRepository;
+import com.curtain.backend.repository.WorkLogRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps work_logs small. Every night the logs of orders completed more than
+ * the retention period ago are moved into one work_log_archives row per order
+ * (a summary plus the gzipped history) and deleted from work_logs.
+ * getOrderLogs() merges both, so callers still see the full history; the CSV
+ * export only covers the live logs.
+ */
+@Service
+public class WorkLogArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkLogArchiveService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private WorkLogRepository workLogRepository;
+
+    @Autowired
+    private WorkLogArchiveRepository workLogArchiveRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${curtain.worklog.archive.retention-days:90}")
+    private int retentionDays;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkLogArchiveService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * All logs of the order, archived and live, oldest first.
+     */
+    public List<WorkLog> getLogs(Long orderId) {
+        List<WorkLog> live = workLogRepository.findByOrderIdOrderByTimestampAsc(orderId);
+        return workLogArchiveRepository.findByOrderId(orderId)
+                .map(archive -> {
+                    List<WorkLog> logs = decode(archive.getLogs());
+                    logs.addAll(live);
+                    logs.sort(Comparator.comparing(WorkLog::getTimestamp));
+                    return logs;
+                })
+                .orElse(live);
+    }
+
+    @Scheduled(cron = "${curtain.worklog.archive.cron:0 30 2 * * *}")
+    public void compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long orders = 0;
+        long logs = 0;
+        try {
+            List<Long> orderIds;
+            while (!(orderIds = workLogRepository.findArchivableOrderIds(cutoff, Limit.of(BATCH_SIZE))).isEmpty()) {
+                List<Long> batch = orderIds;
+                logs += transactionTemplate.execute(status -> compact(batch));
+                orders += batch.size();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Work log compaction stopped: {}", e.getMessage());
+        }
+        if (orders > 0) {
+            log.info("Archived {} work logs of {} orders completed before {}", logs, orders, cutoff);
+        }
+    }
+
+    private int compact(List<Long> orderIds) {
+        Map<Long, List<WorkLog>> logsByOrder = new LinkedHashMap<>();
+        List<WorkLog> logs = workLogRepository.findByOrderIdInOrderByOrderIdAscTimestampAsc(orderIds);
+        for (WorkLog workLog : logs) {
+            logsByOrder.computeIfAbsent(workLog.getOrderId(), id -> new ArrayList<>()).add(workLog);
+        }
+        Map<Long, WorkLogArchive> archives = new LinkedHashMap<>();
+        for (WorkLogArchive archive : workLogArchiveRepository.findByOrderIdIn(orderIds)) {
+            archives.put(archive.getOrderId(), archive);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkLogArchive> updated = new ArrayList<>(logsByOrder.size());
+        logsByOrder.forEach((orderId, orderLogs) -> {
+            WorkLogArchive archive = archives.get(orderId);
+            List<WorkLog> history = new ArrayList<>();
+            if (archive == null) {
+                archive = new WorkLogArchive();
+                archive.setOrderId(orderId);
+            } else {
+                history.addAll(decode(archive.getLogs())); // Logs written after an earlier compaction
+            }
+            history.addAll(orderLogs);
+            history.sort(Comparator.comparing(WorkLog::getTimestamp));
+
+            archive.setLogCount(history.size());
+            archive.setFirstTimestamp(history.get(0).getTimestamp());
+            archive.setLastTimestamp(history.get(history.size() - 1).getTimestamp());
+            archive.setArchivedAt(now);
+            archive.setLogs(encode(history));
+            updated.add(archive);
+        });
+
+        workLogArchiveRepository.saveAll(updated);
+        // By id, so a log written since the read is never dropped unarchived
+        workLogRepository.deleteAllByIdInBatch(logs.stream().map(WorkLog::getId).toList());
+        return logs.size();
+    }
+
+    private byte[] encode(List<WorkLog> logs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, logs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<WorkLog> decode(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return objectMapper.readValue(in, new TypeReference<ArrayList<WorkLog>>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.repository.WorkLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only journal for the write-behind work log mode
+ * (curtain.worklog.write-behind.enabled). Scans append their work logs here
+ * after the order update commits and return once the journal is on disk;
+ * WorkLogJournalDrainer inserts them into work_logs in the background.
+ *
+ * The journal is a series of memory-mapped segment files named after their
+ * first sequence number. A record is [length][CRC32C][payload]; the length is
+ * written last, so a zero length marks the end of the written data and a bad
+ * CRC a torn write. One flusher thread forces the mapped pages to disk every
+ * fsync-interval-ms, so concurrent scans share one fsync. After a restart the
+ * valid records are kept and writing continues in a new segment.
+ *
+ * Every journal directory has a random id, stored next to the segments. Rows
+ * are keyed by (journal_id, journal_seq), so a recreated directory or a second
+ * backend instance never collides with logs already drained. A journal whose
+ * segments are gone continues numbering after its highest journal_seq in
+ * work_logs.
+ *
+ * The drainer stays below the logs of transactions that are still open, and
+ * skips the logs of transactions that rolled back. A crash between the journal
+ * fsync and the commit (or soon after a rollback) can leave a work log for a
+ * scan that did not happen; the scanner got an error and scans again, so the
+ * order gets a second log at that station rather than none.
+ */
+@Component
+@ConditionalOnProperty(name = "curtain.worklog.write-behind.enabled", havingValue = "true")
+public class WorkLogJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkLogJournal.class);
+
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8; // length + crc
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String ID_FILE = "journal-id";
+    private static final LocalDateTime NO_TIME = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    /** A journaled work log with its sequence number. */
+    public record Entry(long seq, WorkLog workLog) {
+    }
+
+    @Autowired
+    private WorkLogRepository workLogRepository;
+
+    @Value("${curtain.worklog.write-behind.dir}")
+    private Path directory;
+
+    @Value("${curtain.worklog.write-behind.fsync-interval-ms:5}")
+    private long fsyncIntervalMillis;
+
+    private final TransactionTemplate fallbackTransaction;
+    private String journalId;
+
+    // Guarded by lock; a ReentrantLock so waiting virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition durableCondition = lock.newCondition();
+    private Segment writeSegment;
+    private long appendedSeq;
+    private long durableSeq;
+    private IOException flushFailure;
+    private long flushFailures;
+
+    // First sequence numbers of the logs of transactions still open, and the
+    // sequence numbers of rolled back logs; read() leaves both to the drainer
+    private final ConcurrentSkipListSet<Long> openTransactions = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Long> rolledBack = new ConcurrentSkipListSet<>();
+
+    // Only used by the draining thread
+    private Segment readSegment;
+    private long readSeq = -1;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public WorkLogJournal(PlatformTransactionManager transactionManager) {
+        this.fallbackTransaction = new TransactionTemplate(transactionManager);
+        this.fallbackTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        journalId = readOrCreateJournalId();
+        long lastSeq = 0;
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            Long maxSeq = workLogRepository.findMaxJournalSeq(journalId);
+            lastSeq = maxSeq != null ? maxSeq : 0;
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            lastSeq = firstSeq(last) - 1;
+            try (Segment segment = Segment.open(last)) {
+                Entry entry;
+                while ((entry = segment.next()) != null) {
+                    lastSeq = entry.seq();
+                }
+            }
+            if (lastSeq < firstSeq(last)) {
+                Files.delete(last); // Nothing valid in it; the new segment takes its name
+            }
+        }
+        appendedSeq = lastSeq;
+        durableSeq = lastSeq;
+        writeSegment = Segment.create(directory.resolve(segmentName(lastSeq + 1)));
+        log.info("Work log journal {} opened in {} at sequence {}", journalId, directory, lastSeq);
+
+        flusher = Thread.ofPlatform().name("worklog-journal-flusher").daemon().start(this::flushLoop);
+    }
+
+    private String readOrCreateJournalId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.US_ASCII).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Path temp = directory.resolve(ID_FILE + ".tmp");
+        Files.writeString(temp, id, StandardCharsets.US_ASCII);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * Journals the logs before the current transaction commits and waits until
+     * they are on disk, so the scan fails rather than commit without them. If
+     * the journal cannot be written, the logs are inserted in the transaction
+     * instead. Logs of a transaction that rolls back are never drained.
+     */
+    public void appendBeforeCommit(List<WorkLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendOrInsert(logs);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    append(logs, true);
+                } catch (IOException | UncheckedIOException e) {
+                    log.error("Work log journal write failed, inserting {} logs directly", logs.size(), e);
+                    // The drainer waits for this transaction, so journaled ones cannot be in work_logs yet
+                    workLogRepository.saveAll(logs);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // STATUS_UNKNOWN keeps the logs: the order update may have committed
+                complete(logs, status != STATUS_ROLLED_BACK);
+            }
+        });
+    }
+
+    private void complete(List<WorkLog> logs, boolean committed) {
+        Long firstSeq = null;
+        for (WorkLog workLog : logs) {
+            if (workLog.getJournalSeq() != null && journalId.equals(workLog.getJournalId())) {
+                if (firstSeq == null) {
+                    firstSeq = workLog.getJournalSeq();
+                }
+                if (!committed) {
+                    rolledBack.add(workLog.getJournalSeq());
+                }
+            }
+        }
+        if (firstSeq != null) {
+            openTransactions.remove(firstSeq);
+        }
+    }
+
+    private void appendOrInsert(List<WorkLog> logs) {
+        try {
+            append(logs);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Work log journal write failed, inserting {} logs directly", logs.size(), e);
+            try {
+                insertDirectly(logs);
+            } catch (DataIntegrityViolationException conflict) {
+                insertDirectly(logs); // The drainer inserted some of them meanwhile
+            }
+        }
+    }
+
+    /**
+     * Logs written to the journal before the failure carry their journal id and
+     * sequence number, and may still become durable and be drained. Inserting
+     * them with those keys lets the drainer skip them, and skips the ones it
+     * has already inserted.
+     */
+    private void insertDirectly(List<WorkLog> logs) {
+        fallbackTransaction.executeWithoutResult(status -> {
+            List<Long> seqs = new ArrayList<>(logs.size());
+            for (WorkLog workLog : logs) {
+                if (workLog.getJournalSeq() != null) {
+                    seqs.add(workLog.getJournalSeq());
+                }
+            }
+            Set<Long> existing = seqs.isEmpty() ? Set.of() : workLogRepository.findExistingJournalSeqs(journalId, seqs);
+            List<WorkLog> missing = new ArrayList<>(logs.size());
+            for (WorkLog workLog : logs) {
+                if (workLog.getJournalSeq() == null || !existing.contains(workLog.getJournalSeq())) {
+                    workLog.setId(null); // Assigned by a rolled back attempt
+                    missing.add(workLog);
+                }
+            }
+            workLogRepository.saveAll(missing);
+        });
+    }
+
+    /** Appends the logs and blocks until the flusher has forced them to disk. */
+    public void append(List<WorkLog> logs) throws IOException {
+        append(logs, false);
+    }
+
+    // In a transaction, the first sequence number is registered before any of
+    // the logs can become durable, and complete() removes it
+    private void append(List<WorkLog> logs, boolean inTransaction) throws IOException {
+        lock.lock();
+        try {
+            long failuresBefore = flushFailures;
+            for (WorkLog workLog : logs) {
+                long seq = appendedSeq + 1;
+                byte[] payload = encode(seq, workLog);
+                if (!writeSegment.fits(payload.length)) {
+                    writeSegment.force();
+                    writeSegment.close();
+                    writeSegment = Segment.create(directory.resolve(segmentName(seq)));
+                }
+                writeSegment.write(payload);
+                workLog.setJournalId(journalId);
+                workLog.setJournalSeq(seq);
+                appendedSeq = seq;
+                if (inTransaction && workLog == logs.get(0)) {
+                    openTransactions.add(seq);
+                }
+            }
+            long target = appendedSeq;
+            while (durableSeq < target) {
+                // Only a failed fsync since these records were written concerns them
+                if (flushFailures != failuresBefore) {
+                    throw flushFailure;
+                }
+                durableCondition.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal fsync", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(fsyncIntervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            flush();
+        }
+        flush();
+    }
+
+    private void flush() {
+        Segment segment;
+        long target;
+        lock.lock();
+        try {
+            if (appendedSeq == durableSeq) {
+                return;
+            }
+            segment = writeSegment;
+            target = appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+
+        // Outside the lock so scans keep appending during the fsync; a segment
+        // rolled over in the meantime was forced by append()
+        IOException failure = null;
+        try {
+            segment.force();
+        } catch (IOException | UncheckedIOException e) {
+            failure = e instanceof IOException io ? io : ((UncheckedIOException) e).getCause();
+        }
+
+        lock.lock();
+        try {
+            if (failure != null) {
+                flushFailure = failure;
+                flushFailures++;
+            } else {
+                durableSeq = Math.max(durableSeq, target);
+            }
+            durableCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDurableSeq() {
+        lock.lock();
+        try {
+            return durableSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The sequence number before the oldest entry still in the journal. */
+    public long getBaseSeq() throws IOException {
+        List<Path> segments = listSegments();
+        return segments.isEmpty() ? getDurableSeq() : firstSeq(segments.get(0)) - 1;
+    }
+
+    /**
+     * Up to max durable entries after the given sequence number, oldest first,
+     * up to the logs of the oldest transaction still open and without those of
+     * rolled back ones. Called from the draining thread only.
+     */
+    public List<Entry> read(long afterSeq, int max) throws IOException {
+        long limit = getDurableSeq();
+        // Read after durableSeq: a durable log's transaction registered before it was written
+        Long oldestOpen = openTransactions.isEmpty() ? null : openTransactions.first();
+        if (oldestOpen != null) {
+            limit = Math.min(limit, oldestOpen - 1);
+        }
+        List<Entry> entries = new ArrayList<>();
+        if (afterSeq >= limit) {
+            return entries;
+        }
+        if (readSegment == null || readSeq != afterSeq) {
+            seek(afterSeq);
+        }
+        while (entries.size() < max && readSeq < limit) {
+            Entry entry = readSegment.next();
+            if (entry == null) {
+                // End of this segment; continue in the next one if there is one
+                Path next = directory.resolve(segmentName(readSeq + 1));
+                if (!Files.exists(next)) {
+                    break;
+                }
+                readSegment.close();
+                readSegment = Segment.open(next);
+                continue;
+            }
+            readSeq = entry.seq();
+            if (entry.seq() > afterSeq && !rolledBack.contains(entry.seq())) {
+                entry.workLog().setJournalId(journalId);
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private void seek(long afterSeq) throws IOException {
+        if (readSegment != null) {
+            readSegment.close();
+        }
+        Path start = null;
+        for (Path segment : listSegments()) {
+            if (firstSeq(segment) <= afterSeq + 1) {
+                start = segment;
+            }
+        }
+        if (start == null) {
+            throw new IOException("No journal segment holds sequence " + (afterSeq + 1));
+        }
+        readSegment = Segment.open(start);
+        readSeq = firstSeq(start) - 1;
+    }
+
+    /** Deletes the segments whose entries are all at or below the given sequence number. */
+    public void deleteSegmentsThrough(long seq) throws IOException {
+        rolledBack.headSet(seq, true).clear();
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSeq(segments.get(i + 1)) - 1 <= seq && !segments.get(i).equals(currentReadPath())) {
+                Files.delete(segments.get(i));
+            }
+        }
+    }
+
+    private Path currentReadPath() {
+        return readSegment != null ? readSegment.path : null;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            writeSegment.force();
+            writeSegment.close();
+        } finally {
+            lock.unlock();
+        }
+        if (readSegment != null) {
+            readSegment.close();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    // Zero-padded so that name order is sequence order
+    private static String segmentName(long firstSeq) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX);
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(long seq, WorkLog workLog) {
+        byte[] worker = bytes(workLog.getWorkerUsername());
+        byte[] action = bytes(workLog.getAction());
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 3 + 12 * 2 + 1 + 4 * 2
+                + (worker != null ? worker.length : 0) + (action != null ? action.length : 0));
+        buffer.putLong(seq);
+        buffer.putLong(workLog.getOrderId());
+        buffer.putLong(workLog.getStationId());
+        putTime(buffer, workLog.getTimestamp());
+        buffer.put((byte) (workLog.getEnteredAt() != null ? 1 : 0));
+        putTime(buffer, workLog.getEnteredAt() != null ? workLog.getEnteredAt() : NO_TIME);
+        putBytes(buffer, worker);
+        putBytes(buffer, action);
+        return buffer.array();
+    }
+
+    private static Entry decode(ByteBuffer buffer) {
+        long seq = buffer.getLong();
+        WorkLog workLog = new WorkLog();
+        workLog.setOrderId(buffer.getLong());
+        workLog.setStationId(buffer.getLong());
+        workLog.setTimestamp(getTime(buffer));
+        boolean hasEnteredAt = buffer.get() == 1;
+        LocalDateTime enteredAt = getTime(buffer);
+        workLog.setEnteredAt(hasEnteredAt ? enteredAt : null);
+        workLog.setWorkerUsername(getString(buffer));
+        workLog.setAction(getString(buffer));
+        workLog.setJournalSeq(seq);
+        return new Entry(seq, workLog);
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value != null ? value.length : -1);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] payload, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /** One mapped segment file with a write or read position. */
+    private static final class Segment implements AutoCloseable {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            channel.force(true); // The new file itself must survive a crash
+            return new Segment(path, channel, buffer);
+        }
+
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Segment(path, channel, buffer);
+        }
+
+        boolean fits(int payloadLength) {
+            // Keep room for the zero length that ends the segment
+            return position + HEADER_SIZE + payloadLength + 4 <= buffer.capacity();
+        }
+
+        void write(byte[] payload) {
+            buffer.putInt(position + 4, crc(payload, 0, payload.length));
+            buffer.put(position + HEADER_SIZE, payload);
+            // Length last: until it is set the record does not exist for readers
+            buffer.putInt(position, payload.length);
+            position += HEADER_SIZE + payload.length;
+        }
+
+        /** The next valid record, or null at the end of the written data. */
+        Entry next() {
+            if (position + HEADER_SIZE > buffer.capacity()) {
+                return null;
+            }
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            if (crc(payload, 0, length) != buffer.getInt(position + 4)) {
+                return null; // Torn write, everything after it is lost
+            }
+            position += HEADER_SIZE + length;
+            return decode(ByteBuffer.wrap(payload));
+        }
+
+        void force() throws IOException {
+            buffer.force();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.repository.WorkLogRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves journaled work logs into work_logs in batched inserts. Progress is a
+ * checkpoint file holding the last inserted sequence number, written after
+ * each batch commits. After a crash the batch since the checkpoint is read
+ * again; rows whose (journal_id, journal_seq) is already in work_logs are
+ * skipped, so the replay inserts every log exactly once.
+ *
+ * worklog.journal.lag reports the journaled logs not yet in work_logs.
+ */
+@Component
+@ConditionalOnProperty(name = "curtain.worklog.write-behind.enabled", havingValue = "true")
+public class WorkLogJournalDrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkLogJournalDrainer.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    @Autowired
+    private WorkLogJournal workLogJournal;
+
+    @Autowired
+    private WorkLogRepository workLogRepository;
+
+    @Value("${curtain.worklog.write-behind.dir}")
+    private Path directory;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private volatile long checkpoint;
+
+    public WorkLogJournalDrainer(PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("worklog.journal.lag", this, drainer -> drainer.getLag())
+                .description("Work logs journaled but not yet inserted into work_logs")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        // A new journal may start numbering after the logs of an earlier one
+        checkpoint = Files.exists(file)
+                ? Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim())
+                : workLogJournal.getBaseSeq();
+        long lag = getLag();
+        if (lag > 0) {
+            log.info("Replaying {} journaled work logs after sequence {}", lag, checkpoint);
+        }
+    }
+
+    public long getLag() {
+        return Math.max(0, workLogJournal.getDurableSeq() - checkpoint);
+    }
+
+    @Scheduled(fixedDelayString = "${curtain.worklog.write-behind.drain-interval-ms:200}")
+    public void drain() {
+        drainLock.lock();
+        try {
+            List<WorkLogJournal.Entry> entries;
+            while (!(entries = workLogJournal.read(checkpoint, BATCH_SIZE)).isEmpty()) {
+                insert(entries);
+                long last = entries.get(entries.size() - 1).seq();
+                writeCheckpoint(last);
+                checkpoint = last;
+                workLogJournal.deleteSegmentsThrough(last);
+            }
+        } catch (IOException | DataAccessException e) {
+            log.warn("Work log journal drain failed at sequence {}, retrying: {}", checkpoint, e.getMessage());
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void insert(List<WorkLogJournal.Entry> entries) {
+        List<Long> seqs = new ArrayList<>(entries.size());
+        for (WorkLogJournal.Entry entry : entries) {
+            seqs.add(entry.seq());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Rows of a batch that was inserted but not checkpointed before a crash
+            Set<Long> existing = workLogRepository.findExistingJournalSeqs(workLogJournal.getJournalId(), seqs);
+            List<WorkLog> logs = new ArrayList<>(entries.size());
+            for (WorkLogJournal.Entry entry : entries) {
+                if (!existing.contains(entry.seq())) {
+                    logs.add(entry.workLog());
+                }
+            }
+            workLogRepository.saveAll(logs);
+        });
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(seq), StandardCharsets.US_ASCII);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Runs before the journal closes, since this bean depends on it
+    @PreDestroy
+    public void drainOnShutdown() {
+        drain();
+    }
+}
@@ -0,0 +1,156 @@
+package com.curtain.backend.repository;
+
+import com.curtain.backend.service.OrderSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAINs the hot Order/WorkLog lookups on MySQL 8 and checks that each one
+ * uses its index, with the schema Hibernate and OrderSearchIndex create on
+ * startup and a seeded, analyzed data set. Also checks that full-text search
+ * finds every order the old LIKE search found. The automated form of
+ * scripts/explain-hot-queries.sh; skipped where Docker is not available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "curtain.search.fulltext.create-index=true",
+        "curtain.backfill.cycle-times=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class HotQueryPlanTest {
+
+    private static final int ORDER_COUNT = 20_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2023, 1, 1);
+    private static final String[] CUSTOMERS = { "Ahmet Yilmaz", "Ayse Kaya", "Mehmet Demir", "Fatma Celik",
+            "Mustafa Sahin", "Zeynep Arslan", "Ali Ozturk", "Elif Aydin" };
+    private static final String[] STORES = { "Kadikoy", "Besiktas", "Ankara Cankaya", "Izmir Alsancak" };
+    private static final String[] MAIL_DOMAINS = { "gmail.com", "hotmail.com", "outlook.com" };
+    private static final String[] STATIONS = { "CUTTING", "SEWING", "PACKING" };
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> mysql.getJdbcUrl() + "?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+
+    @BeforeEach
+    void seed() throws InterruptedException {
+        if (seeded) {
+            return;
+        }
+        // Built in the background on startup
+        for (int i = 0; i < 600 && !orderSearchIndex.isAvailable(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(orderSearchIndex.isAvailable(), "full-text index was not created");
+
+        for (int start = 1; start <= ORDER_COUNT; start += BATCH_SIZE) {
+            List<Object[]> orders = new ArrayList<>(BATCH_SIZE);
+            List<Object[]> logs = new ArrayList<>(BATCH_SIZE * STATIONS.length);
+            for (long id = start; id < start + BATCH_SIZE; id++) {
+                orders.add(order(id));
+                LocalDateTime time = FIRST_DATE.atStartOfDay().plusMinutes(id * 53);
+                for (int station = 0; station < STATIONS.length; station++) {
+                    long logId = id * STATIONS.length + station;
+                    logs.add(new Object[] { logId, id, station + 1L, Timestamp.valueOf(time.plusHours(station + 1)),
+                            Timestamp.valueOf(time.plusHours(station)), "worker" + (id % 20), "journal", logId });
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, ordering_store, customer_name, "
+                    + "customer_tel, customer_email, date, order_state, current_station, current_station_id, "
+                    + "is_blocked) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+            jdbcTemplate.batchUpdate("INSERT INTO work_logs (id, order_id, station_id, timestamp, entered_at, "
+                    + "worker_username, journal_id, journal_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", logs);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE orders, work_logs");
+        seeded = true;
+    }
+
+    // Mostly completed orders over two years; a few in progress or blocked
+    private static Object[] order(long id) {
+        String customer = CUSTOMERS[(int) (id % CUSTOMERS.length)];
+        int bucket = (int) (id % 100);
+        String state = bucket < 90 ? "COMPLETED" : bucket < 98 ? "IN_PROGRESS" : "BLOCKED";
+        Long stationId = "COMPLETED".equals(state) ? null : id % STATIONS.length + 1;
+        String station = stationId != null ? STATIONS[(int) (stationId - 1)] : "COMPLETED";
+        return new Object[] { id, String.format("ORD-%06d", id), STORES[(int) (id % STORES.length)], customer,
+                String.format("05%02d %07d", 30 + id % 10, id), customer.toLowerCase().replace(' ', '.') + id + "@"
+                        + MAIL_DOMAINS[(int) (id % MAIL_DOMAINS.length)],
+                Date.valueOf(FIRST_DATE.plusDays(id % 730)), state, station, stationId, "BLOCKED".equals(state) };
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("idx_orders_date",
+                        "SELECT * FROM orders WHERE date BETWEEN '2024-01-01' AND '2024-01-31'"),
+                Arguments.of("idx_orders_state_station",
+                        "SELECT COUNT(*) FROM orders WHERE order_state = 'IN_PROGRESS' AND current_station_id = 1"),
+                Arguments.of("idx_orders_blocked", "SELECT * FROM orders WHERE is_blocked = 1"),
+                Arguments.of("PRIMARY", "SELECT * FROM orders WHERE id > 1000 ORDER BY id LIMIT 50"),
+                Arguments.of("idx_work_logs_order_timestamp",
+                        "SELECT * FROM work_logs WHERE order_id = 1 ORDER BY timestamp"),
+                Arguments.of("idx_work_logs_timestamp",
+                        "SELECT * FROM work_logs WHERE timestamp >= '2024-01-01' AND timestamp < '2024-02-01'"),
+                Arguments.of("uk_work_logs_journal",
+                        "SELECT journal_seq FROM work_logs WHERE journal_id = 'journal' AND journal_seq IN (1, 2, 3)"),
+                Arguments.of("ft_orders_search", "SELECT * FROM orders WHERE MATCH(order_number, ordering_store, "
+                        + "customer_name, customer_tel, customer_email) AGAINST('+\"kaya\"' IN BOOLEAN MODE) > 0"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void usesIndex(String expectedKey, String query) {
+        Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + query).get(0);
+        assertEquals(expectedKey, plan.get("key"), () -> "plan for " + query + ": " + plan);
+    }
+
+    // Any order LIKE finds but MATCH misses means the index drops part of the text (e.g. stopwords)
+    @ParameterizedTest
+    @ValueSource(strings = { "kaya", "ali", "0532", "gmail" })
+    void fullTextFindsEveryLikeMatch(String term) {
+        String like = "(order_number LIKE '%" + term + "%' OR ordering_store LIKE '%" + term + "%' "
+                + "OR customer_name LIKE '%" + term + "%' OR customer_tel LIKE '%" + term + "%' "
+                + "OR customer_email LIKE '%" + term + "%')";
+        String match = "MATCH(order_number, ordering_store, customer_name, customer_tel, customer_email) "
+                + "AGAINST('+\"" + term + "\"' IN BOOLEAN MODE) > 0";
+        Map<String, Object> counts = jdbcTemplate.queryForMap("SELECT COALESCE(SUM(" + like + "), 0) AS found, "
+                + "COALESCE(SUM(" + like + " AND NOT (" + match + ")), 0) AS missed FROM orders");
+        assertTrue(((Number) counts.get("found")).longValue() > 0, () -> "no LIKE matches for " + term);
+        assertEquals(0L, ((Number) counts.get("missed")).longValue(), () -> "'" + term + "': " + counts);
+    }
+}
@@ -0,0 +1,146 @@
+package com.curtain.backend.service;
+
+import com.curtain.backend.dto.OrderStateCount;
+import com.curtain.backend.entity.Order;
+import com.curtain.backend.entity.Station;
+import com.curtain.backend.entity.WorkLog;
+import com.curtain.backend.repository.OrderRepository;
+import com.curtain.backend.repository.WorkLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scanners and issue reports racing for the same order, against an in-memory
+ * H2 database in MySQL mode. Every transition must happen exactly once, and the
+ * stats view must still match the database afterwards.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "curtain.backfill.cycle-times=false"
+})
+class OrderServiceConcurrencyTest {
+
+    private static final int ROUNDS = 20;
+    private static final int SCANNERS = 4;
+    private static final int REPORTERS = 2;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StationService stationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private WorkLogRepository workLogRepository;
+
+    @Autowired
+    private OrderStatsView orderStatsView;
+
+    @BeforeEach
+    void createLine() {
+        if (!stationService.getAllStations().isEmpty()) {
+            return;
+        }
+        String[][] line = { { "Cutting", "CUTTING" }, { "Sewing", "SEWING" }, { "Packing", "PACKING" } };
+        for (int i = 0; i < line.length; i++) {
+            Station station = new Station();
+            station.setName(line[i][0]);
+            station.setStateCode(line[i][1]);
+            station.setStep(i + 1);
+            station.setStatus("ACTIVE");
+            stationService.createStation(station);
+        }
+    }
+
+    @Test
+    void scansAndIssueReportsOnOneOrderKeepStatsExact() throws Exception {
+        orderStatsView.getCounts(); // Loaded, so that it is kept up to date by deltas
+        ExecutorService executor = Executors.newFixedThreadPool(SCANNERS + REPORTERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Order order = new Order();
+                order.setOrderNumber("RACE-" + round);
+                Order created = orderService.createOrder(order);
+                String orderNumber = created.getOrderNumber();
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> reports = new ArrayList<>();
+                List<Future<?>> scans = new ArrayList<>();
+                for (int i = 0; i < SCANNERS; i++) {
+                    scans.add(executor.submit(() -> {
+                        start.await();
+                        // Scan at whatever station the order is at until it leaves the line
+                        Order current;
+                        while ((current = orderRepository.findByOrderNumber(orderNumber).orElseThrow())
+                                .getCurrentStationId() != null) {
+                            orderService.processOrderStation(orderNumber, current.getCurrentStationId(), "scanner");
+                        }
+                        return null;
+                    }));
+                }
+                for (int i = 0; i < REPORTERS; i++) {
+                    String reason = "Fabric flaw " + i;
+                    reports.add(executor.submit(() -> {
+                        start.await();
+                        return orderService.reportIssue(orderNumber, reason, "inspector");
+                    }));
+                }
+                start.countDown();
+                for (Future<?> scan : scans) {
+                    scan.get();
+                }
+                for (Future<Boolean> report : reports) {
+                    assertTrue(report.get());
+                }
+
+                Order finished = orderRepository.findByOrderNumber(orderNumber).orElseThrow();
+                assertEquals(null, finished.getCurrentStationId());
+                assertEquals(Boolean.TRUE, finished.getIsBlocked());
+                assertTrue(List.of("COMPLETED", "BLOCKED").contains(finished.getOrderState()),
+                        finished.getOrderState());
+
+                // One creation log, then exactly one log per station passed
+                List<WorkLog> logs = workLogRepository.findByOrderIdOrderByTimestampAsc(finished.getId());
+                long stationLogs = logs.stream().filter(log -> log.getAction() == null).count();
+                assertEquals(3, stationLogs);
+                assertEquals(4, logs.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(countsOf(orderRepository.countByState(null, null)), countsOf(orderStatsView.getCounts()));
+    }
+
+    private static Map<OrderStatsView.StateKey, Long> countsOf(List<OrderStateCount> rows) {
+        Map<OrderStatsView.StateKey, Long> counts = new HashMap<>();
+        for (OrderStateCount row : rows) {
+            counts.put(new OrderStatsView.StateKey(row.getOrderState(), row.getCurrentStation(), row.getIsBlocked()),
+                    row.getCount());
+        }
+        return counts;
+    }
+}